@@ -0,0 +1,162 @@
+package be.quodlibet.boxable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import be.quodlibet.boxable.line.LineStyle;
+import be.quodlibet.boxable.utils.PDStreamUtils;
+import be.quodlibet.boxable.utils.TrackingContentStream;
+
+/**
+ * <p>
+ * Collects the cell borders drawn on a page and strokes them together. Lines
+ * of the same style lying on the same horizontal or vertical line are merged
+ * where they touch or overlap, so the border shared by neighbouring cells
+ * and the borders running through a whole row or column become a single
+ * line, and each style is stroked with a single path.
+ * </p>
+ */
+final class BorderPlanner {
+
+	private static final Comparator<Segment> BY_POSITION = new Comparator<Segment>() {
+		@Override
+		public int compare(final Segment first, final Segment second) {
+			final int byPosition = Float.compare(first.position, second.position);
+			return byPosition != 0 ? byPosition : Float.compare(first.start, second.start);
+		}
+	};
+
+	/**
+	 * Part of a horizontal line at Y {@code position}, or of a vertical line
+	 * at X {@code position}, from {@code start} to {@code end}.
+	 */
+	private static final class Segment {
+
+		private final float position;
+		private final float start;
+		private float end;
+
+		private Segment(final float position, final float start, final float end) {
+			this.position = position;
+			this.start = Math.min(start, end);
+			this.end = Math.max(start, end);
+		}
+	}
+
+	/**
+	 * Lines of one style, in the order they were added.
+	 */
+	private static final class Group {
+
+		private final LineStyle style;
+		private final List<Segment> horizontal = new ArrayList<>();
+		private final List<Segment> vertical = new ArrayList<>();
+
+		private Group(final LineStyle style) {
+			this.style = style;
+		}
+	}
+
+	// styles in the order they were first used, as only a few are used
+	private final List<Group> groups = new ArrayList<>();
+
+	/**
+	 * <p>
+	 * Adds a horizontal line.
+	 * </p>
+	 *
+	 * @param style
+	 *            {@link LineStyle} of the line
+	 * @param y
+	 *            Y coordinate of the line
+	 * @param xStart
+	 *            X coordinate where the line starts
+	 * @param xEnd
+	 *            X coordinate where the line ends
+	 */
+	void addHorizontal(final LineStyle style, final float y, final float xStart, final float xEnd) {
+		groupOf(style).horizontal.add(new Segment(y, xStart, xEnd));
+	}
+
+	/**
+	 * <p>
+	 * Adds a vertical line.
+	 * </p>
+	 *
+	 * @param style
+	 *            {@link LineStyle} of the line
+	 * @param x
+	 *            X coordinate of the line
+	 * @param yStart
+	 *            Y coordinate where the line starts
+	 * @param yEnd
+	 *            Y coordinate where the line ends
+	 */
+	void addVertical(final LineStyle style, final float x, final float yStart, final float yEnd) {
+		groupOf(style).vertical.add(new Segment(x, yStart, yEnd));
+	}
+
+	/**
+	 * <p>
+	 * Strokes the lines added so far and starts over.
+	 * </p>
+	 *
+	 * @param contentStream
+	 *            {@link TrackingContentStream} of the page
+	 * @throws IOException
+	 *             If writing to the content stream fails
+	 */
+	void stroke(final TrackingContentStream contentStream) throws IOException {
+		for (Group group : groups) {
+			PDStreamUtils.setLineStyles(contentStream, group.style);
+			for (Segment segment : merge(group.horizontal)) {
+				contentStream.moveTo(segment.start, segment.position);
+				contentStream.lineTo(segment.end, segment.position);
+			}
+			for (Segment segment : merge(group.vertical)) {
+				contentStream.moveTo(segment.position, segment.start);
+				contentStream.lineTo(segment.position, segment.end);
+			}
+			contentStream.stroke();
+		}
+		groups.clear();
+	}
+
+	private Group groupOf(final LineStyle style) {
+		for (Group group : groups) {
+			if (isSameStyle(group.style, style)) {
+				return group;
+			}
+		}
+		final Group group = new Group(style);
+		groups.add(group);
+		return group;
+	}
+
+	/**
+	 * {@link LineStyle#equals(Object)} doesn't compare the dash pattern.
+	 */
+	private static boolean isSameStyle(final LineStyle style, final LineStyle other) {
+		return style.equals(other) && Arrays.equals(style.getDashArray(), other.getDashArray())
+				&& style.getDashPhase() == other.getDashPhase();
+	}
+
+	private static List<Segment> merge(final List<Segment> segments) {
+		Collections.sort(segments, BY_POSITION);
+		final List<Segment> merged = new ArrayList<>();
+		Segment last = null;
+		for (Segment segment : segments) {
+			if (last != null && last.position == segment.position && segment.start <= last.end) {
+				last.end = Math.max(last.end, segment.end);
+			} else {
+				last = new Segment(segment.position, segment.start, segment.end);
+				merged.add(last);
+			}
+		}
+		return merged;
+	}
+}
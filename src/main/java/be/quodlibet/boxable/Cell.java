@@ -5,7 +5,7 @@
 package be.quodlibet.boxable;
 
 import java.awt.Color;
-import java.io.IOException;
+import java.util.Map;
 
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.font.PDFont;
@@ -108,9 +108,10 @@ public class Cell<T extends PDPage> {
 					"Cell Width=" + getWidth() + " can't be bigger than row width=" + row.getWidth());
 		}
 		//check if we have new default font
-		if(!FontUtils.getDefaultfonts().isEmpty()){
-			font = FontUtils.getDefaultfonts().get("font");
-			fontBold = FontUtils.getDefaultfonts().get("fontBold");
+		final Map<String, PDFont> defaultFonts = getRenderContext().getDefaultFonts();
+		if(!defaultFonts.isEmpty()){
+			font = defaultFonts.get("font");
+			fontBold = defaultFonts.get("fontBold");
 		}
 		this.text = text == null ? "" : text;
 		this.align = align;
@@ -118,6 +119,58 @@ public class Cell<T extends PDPage> {
 		this.wrappingFunction = null;
 	}
 
+	/**
+	 * <p>
+	 * Constructs a cell with the width and style of the given cell. Without
+	 * a text of its own, the cell keeps the text of the given cell and reuses
+	 * its {@link Paragraph}, unless the text is rotated and therefore laid
+	 * out within the height of the row.
+	 * </p>
+	 *
+	 * @param row
+	 *            The parent row
+	 * @param prototype
+	 *            Cell to copy the width and style from
+	 * @param text
+	 *            The text content of the cell or {@code null} to keep the one
+	 *            of the prototype
+	 * @see TableTemplate
+	 */
+	Cell(Row<T> row, Cell<T> prototype, String text) {
+		this.row = row;
+		this.width = prototype.width;
+		this.height = prototype.height;
+		this.font = prototype.font;
+		this.fontBold = prototype.fontBold;
+		this.fontSize = prototype.fontSize;
+		this.fillColor = prototype.fillColor;
+		this.textColor = prototype.textColor;
+		this.wrappingFunction = prototype.wrappingFunction;
+		this.isHeaderCell = prototype.isHeaderCell;
+		this.isColspanCell = prototype.isColspanCell;
+		this.isHiddenCell = prototype.isHiddenCell;
+		this.leftPadding = prototype.leftPadding;
+		this.rightPadding = prototype.rightPadding;
+		this.topPadding = prototype.topPadding;
+		this.bottomPadding = prototype.bottomPadding;
+		this.leftBorderStyle = prototype.leftBorderStyle;
+		this.rightBorderStyle = prototype.rightBorderStyle;
+		this.topBorderStyle = prototype.topBorderStyle;
+		this.bottomBorderStyle = prototype.bottomBorderStyle;
+		this.lineSpacing = prototype.lineSpacing;
+		this.textRotated = prototype.textRotated;
+		this.align = prototype.align;
+		this.valign = prototype.valign;
+		if (text == null) {
+			this.text = prototype.text;
+			if (!textRotated) {
+				this.paragraph = prototype.paragraph;
+			}
+		} else {
+			this.text = text;
+		}
+	}
+
 	/**
 	 * <p>
 	 * Retrieves cell's text {@link Color}. Default color is black.
@@ -221,8 +274,9 @@ public class Cell<T extends PDPage> {
 	public void setText(String text) {
 		this.text = text;
 
-		// paragraph invalidated
+		// paragraph and row height invalidated
 		paragraph = null;
+		row.invalidateHeight();
 	}
 
 	/**
@@ -256,8 +310,9 @@ public class Cell<T extends PDPage> {
 	public void setFont(PDFont font) {
 		this.font = font;
 
-		// paragraph invalidated
+		// paragraph and row height invalidated
 		paragraph = null;
+		row.invalidateHeight();
 	}
 
 	/**
@@ -282,8 +337,9 @@ public class Cell<T extends PDPage> {
 	public void setFontSize(float fontSize) {
 		this.fontSize = fontSize;
 
-		// paragraph invalidated
+		// paragraph and row height invalidated
 		paragraph = null;
+		row.invalidateHeight();
 	}
 
 	/**
@@ -302,28 +358,50 @@ public class Cell<T extends PDPage> {
 	 */
 	public Paragraph getParagraph() {
 		if (paragraph == null) {
-			// if it is header cell then use font bold
-			if (isHeaderCell) {
-				if (isTextRotated()) {
-					paragraph = new Paragraph(text, fontBold, fontSize, getInnerHeight(), align, textColor, null,
-							wrappingFunction, lineSpacing);
-				} else {
-					paragraph = new Paragraph(text, fontBold, fontSize, getInnerWidth(), align, textColor, null,
-							wrappingFunction, lineSpacing);
-				}
-			} else {
-				if (isTextRotated()) {
-					paragraph = new Paragraph(text, font, fontSize, getInnerHeight(), align, textColor, null,
-							wrappingFunction, lineSpacing);
-				} else {
-					paragraph = new Paragraph(text, font, fontSize, getInnerWidth(), align, textColor, null,
-							wrappingFunction, lineSpacing);
-				}
-			}
+			paragraph = createParagraph(isTextRotated() ? getInnerHeight() : getInnerWidth());
 		}
 		return paragraph;
 	}
 
+	/**
+	 * <p>
+	 * Gets the {@link Paragraph} as drawn within the given inner height. When
+	 * the table leaves out the top border of a cell with rotated text, the
+	 * text is laid out again for the larger height instead of changing the
+	 * paragraph of the cell.
+	 * </p>
+	 *
+	 * @param innerHeight
+	 *            Inner height of the cell as drawn
+	 * @return Cell's {@link Paragraph} or one laid out for the inner height
+	 */
+	Paragraph getParagraph(float innerHeight) {
+		final Paragraph paragraph = getParagraph();
+		if (isTextRotated() && paragraph.getWidth() != innerHeight) {
+			return createParagraph(innerHeight);
+		}
+		return paragraph;
+	}
+
+	private Paragraph createParagraph(float width) {
+		// if it is header cell then use font bold
+		return new Paragraph(text, isHeaderCell ? fontBold : font, fontSize, width, align, textColor, null,
+				wrappingFunction, lineSpacing, getRenderContext());
+	}
+
+	/**
+	 * <p>
+	 * Lets the row measure its height again, see {@link Row#getHeight()}.
+	 * </p>
+	 */
+	void invalidateRowHeight() {
+		row.invalidateHeight();
+	}
+
+	RenderContext getRenderContext() {
+		return row.getRenderContext();
+	}
+
 	public float getExtraWidth() {
 		return this.row.getLastCellExtraWidth() + getWidth();
 	}
@@ -358,21 +436,34 @@ public class Cell<T extends PDPage> {
 	 * @return Cell's height
 	 * @throws IllegalStateException
 	 *             if <code>font</code> is not set.
+	 * @see #measureHeight()
 	 */
 	public float getCellHeight() {
+		return measureHeight();
+	}
+
+	/**
+	 * <p>
+	 * Measures the height of the single cell as described in
+	 * {@link #getCellHeight()}. The text is only measured by
+	 * {@link Paragraph#measure(float)}, its lines are built when the cell is
+	 * drawn.
+	 * </p>
+	 *
+	 * @return Cell's height
+	 * @throws IllegalStateException
+	 *             if <code>font</code> is not set.
+	 */
+	public float measureHeight() {
 		if (height != null) {
 			return height;
 		}
 
 		if (isTextRotated()) {
-			try {
-				// TODO: maybe find more optimal way then this
-				return getFont().getStringWidth(getText()) / 1000 * getFontSize() + getTopPadding()
-						+ (getTopBorder() == null ? 0 : getTopBorder().getWidth()) + getBottomPadding()
-						+ (getBottomBorder() == null ? 0 : getBottomBorder().getWidth());
-			} catch (final IOException e) {
-				throw new IllegalStateException("Font not set.", e);
-			}
+			// TODO: maybe find more optimal way then this
+			return FontUtils.getStringWidth(getFont(), getText(), getFontSize()) + getTopPadding()
+					+ (getTopBorder() == null ? 0 : getTopBorder().getWidth()) + getBottomPadding()
+					+ (getBottomBorder() == null ? 0 : getBottomBorder().getWidth());
 		} else {
 			return getTextHeight() + getTopPadding() + getBottomPadding()
 					+ (getTopBorder() == null ? 0 : getTopBorder().getWidth())
@@ -390,6 +481,7 @@ public class Cell<T extends PDPage> {
 	 */
 	public void setHeight(final Float height) {
 		this.height = height;
+		row.invalidateHeight();
 	}
 
 	/**
@@ -436,8 +528,9 @@ public class Cell<T extends PDPage> {
 	public void setLeftPadding(float cellLeftPadding) {
 		this.leftPadding = cellLeftPadding;
 
-		// paragraph invalidated
+		// paragraph and row height invalidated
 		paragraph = null;
+		row.invalidateHeight();
 	}
 
 	/**
@@ -462,8 +555,9 @@ public class Cell<T extends PDPage> {
 	public void setRightPadding(float cellRightPadding) {
 		this.rightPadding = cellRightPadding;
 
-		// paragraph invalidated
+		// paragraph and row height invalidated
 		paragraph = null;
+		row.invalidateHeight();
 	}
 
 	/**
@@ -487,6 +581,7 @@ public class Cell<T extends PDPage> {
 	 */
 	public void setTopPadding(float cellTopPadding) {
 		this.topPadding = cellTopPadding;
+		row.invalidateHeight();
 	}
 
 	/**
@@ -510,6 +605,7 @@ public class Cell<T extends PDPage> {
 	 */
 	public void setBottomPadding(float cellBottomPadding) {
 		this.bottomPadding = cellBottomPadding;
+		row.invalidateHeight();
 	}
 
 	/**
@@ -528,14 +624,25 @@ public class Cell<T extends PDPage> {
 	 * @return Free vertical space of the cell's.
 	 */
 	public float getVerticalFreeSpace() {
+		return getVerticalFreeSpace(getInnerHeight());
+	}
+
+	/**
+	 * <p>
+	 * Gets free vertical space of cell within the given inner height, which
+	 * differs from {@link #getInnerHeight()} when the table leaves out some
+	 * of the borders while drawing.
+	 * </p>
+	 *
+	 * @param innerHeight
+	 *            Inner height of the cell as drawn
+	 * @return Free vertical space of the cell
+	 */
+	float getVerticalFreeSpace(float innerHeight) {
 		if (isTextRotated()) {
-			// need to calculate max line width so we just iterating through
-			// lines
-			for (String line : getParagraph().getLines()) {
-			}
-			return getInnerHeight() - getParagraph().getMaxLineWidth();
+			return innerHeight - getParagraph().getMaxLineWidth();
 		} else {
-			return getInnerHeight() - getTextHeight();
+			return innerHeight - getTextHeight();
 		}
 	}
 
@@ -555,10 +662,24 @@ public class Cell<T extends PDPage> {
 	 * @return Free vertical space of the cell's.
 	 */
 	public float getHorizontalFreeSpace() {
+		return getHorizontalFreeSpace(getInnerWidth());
+	}
+
+	/**
+	 * <p>
+	 * Gets free horizontal space of cell within the given inner width, see
+	 * {@link #getVerticalFreeSpace(float)}.
+	 * </p>
+	 *
+	 * @param innerWidth
+	 *            Inner width of the cell as drawn
+	 * @return Free horizontal space of the cell
+	 */
+	float getHorizontalFreeSpace(float innerWidth) {
 		if (isTextRotated()) {
-			return getInnerWidth() - getTextHeight();
+			return innerWidth - getTextHeight();
 		} else {
-			return getInnerWidth() - getParagraph().getMaxLineWidth();
+			return innerWidth - getParagraph().getMaxLineWidth();
 		}
 	}
 
@@ -576,6 +697,7 @@ public class Cell<T extends PDPage> {
 
 	public void setHeaderCell(boolean isHeaderCell) {
 		this.isHeaderCell = isHeaderCell;
+		row.invalidateHeight();
 	}
 
 	public WrappingFunction getWrappingFunction() {
@@ -585,8 +707,9 @@ public class Cell<T extends PDPage> {
 	public void setWrappingFunction(WrappingFunction wrappingFunction) {
 		this.wrappingFunction = wrappingFunction;
 
-		// paragraph invalidated
+		// paragraph and row height invalidated
 		paragraph = null;
+		row.invalidateHeight();
 	}
 
 	public LineStyle getLeftBorder() {
@@ -615,10 +738,12 @@ public class Cell<T extends PDPage> {
 
 	public void setTopBorderStyle(LineStyle topBorder) {
 		this.topBorderStyle = topBorder;
+		row.invalidateHeight();
 	}
 
 	public void setBottomBorderStyle(LineStyle bottomBorder) {
 		this.bottomBorderStyle = bottomBorder;
+		row.invalidateHeight();
 	}
 
 	/**
@@ -634,6 +759,7 @@ public class Cell<T extends PDPage> {
 		this.rightBorderStyle = border;
 		this.topBorderStyle = border;
 		this.bottomBorderStyle = border;
+		row.invalidateHeight();
 	}
 
 	public boolean isTextRotated() {
@@ -642,6 +768,7 @@ public class Cell<T extends PDPage> {
 
 	public void setTextRotated(boolean textRotated) {
 		this.textRotated = textRotated;
+		row.invalidateHeight();
 	}
 
 	public PDFont getFontBold() {
@@ -659,6 +786,7 @@ public class Cell<T extends PDPage> {
 	 */
 	public void setFontBold(final PDFont fontBold) {
 		this.fontBold = fontBold;
+		row.invalidateHeight();
 	}
 
 	public boolean isColspanCell() {
@@ -698,6 +826,7 @@ public class Cell<T extends PDPage> {
 		setTextColor(sourceCell.getTextColor());
 		setAlign(sourceCell.getAlign());
 		setValign(sourceCell.getValign());
+		row.invalidateHeight();
 	}
 
 	/**
@@ -735,6 +864,7 @@ public class Cell<T extends PDPage> {
 
 	public void setWidth(float width) {
 		this.width = width;
+		row.invalidateHeight();
 	}
 
 	public float getLineSpacing() {
@@ -743,6 +873,7 @@ public class Cell<T extends PDPage> {
 
 	public void setLineSpacing(float lineSpacing) {
 		this.lineSpacing = lineSpacing;
+		row.invalidateHeight();
 	}
 
 	public boolean isHiddenCell() {
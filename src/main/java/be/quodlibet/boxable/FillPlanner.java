@@ -0,0 +1,169 @@
+package be.quodlibet.boxable;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import be.quodlibet.boxable.utils.TrackingContentStream;
+
+/**
+ * <p>
+ * Collects the cell backgrounds filled on a page and fills them together.
+ * Rectangles of the same color are merged where they touch, first the cells
+ * of a row into bands and then bands of the same width on top of each other
+ * into blocks, and each color is filled with a single path.
+ * </p>
+ */
+final class FillPlanner {
+
+	// rectangles closer than this touch, as their edges are computed in
+	// different ways
+	private static final float TOLERANCE = 0.01f;
+
+	private static final Comparator<Rectangle> BY_ROW = new Comparator<Rectangle>() {
+		@Override
+		public int compare(final Rectangle first, final Rectangle second) {
+			int result = Float.compare(first.y, second.y);
+			if (result == 0) {
+				result = Float.compare(first.height, second.height);
+			}
+			return result != 0 ? result : Float.compare(first.x, second.x);
+		}
+	};
+
+	private static final Comparator<Rectangle> BY_COLUMN = new Comparator<Rectangle>() {
+		@Override
+		public int compare(final Rectangle first, final Rectangle second) {
+			int result = Float.compare(first.x, second.x);
+			if (result == 0) {
+				result = Float.compare(first.width, second.width);
+			}
+			return result != 0 ? result : Float.compare(first.y, second.y);
+		}
+	};
+
+	/**
+	 * Rectangle with its lower left corner at {@code x}, {@code y}.
+	 */
+	private static final class Rectangle {
+
+		private final float x;
+		private final float y;
+		private float width;
+		private float height;
+
+		private Rectangle(final float x, final float y, final float width, final float height) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+	}
+
+	/**
+	 * Rectangles of one color, in the order they were added.
+	 */
+	private static final class Group {
+
+		private final Color color;
+		private final List<Rectangle> rectangles = new ArrayList<>();
+
+		private Group(final Color color) {
+			this.color = color;
+		}
+	}
+
+	// colors in the order they were first used, as only a few are used
+	private final List<Group> groups = new ArrayList<>();
+
+	/**
+	 * <p>
+	 * Adds a rectangle to fill.
+	 * </p>
+	 *
+	 * @param color
+	 *            {@link Color} to fill with
+	 * @param x
+	 *            X coordinate of the lower left corner
+	 * @param y
+	 *            Y coordinate of the lower left corner
+	 * @param width
+	 *            Width of the rectangle
+	 * @param height
+	 *            Height of the rectangle
+	 */
+	void add(final Color color, final float x, final float y, final float width, final float height) {
+		groupOf(color).rectangles.add(new Rectangle(x, y, width, height));
+	}
+
+	/**
+	 * <p>
+	 * Fills the rectangles added so far and starts over.
+	 * </p>
+	 *
+	 * @param contentStream
+	 *            {@link TrackingContentStream} of the page
+	 * @throws IOException
+	 *             If writing to the content stream fails
+	 */
+	void fill(final TrackingContentStream contentStream) throws IOException {
+		for (Group group : groups) {
+			contentStream.setNonStrokingColor(group.color);
+			for (Rectangle rectangle : mergeColumns(mergeRows(group.rectangles))) {
+				contentStream.addRect(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+			}
+			contentStream.fill();
+		}
+		if (!groups.isEmpty()) {
+			// Reset NonStroking Color to default value
+			contentStream.setNonStrokingColor(Color.BLACK);
+		}
+		groups.clear();
+	}
+
+	private Group groupOf(final Color color) {
+		for (Group group : groups) {
+			if (group.color.equals(color)) {
+				return group;
+			}
+		}
+		final Group group = new Group(color);
+		groups.add(group);
+		return group;
+	}
+
+	private static List<Rectangle> mergeRows(final List<Rectangle> rectangles) {
+		Collections.sort(rectangles, BY_ROW);
+		final List<Rectangle> merged = new ArrayList<>();
+		Rectangle last = null;
+		for (Rectangle rectangle : rectangles) {
+			if (last != null && last.y == rectangle.y && last.height == rectangle.height
+					&& rectangle.x <= last.x + last.width + TOLERANCE) {
+				last.width = Math.max(last.width, rectangle.x + rectangle.width - last.x);
+			} else {
+				last = new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+				merged.add(last);
+			}
+		}
+		return merged;
+	}
+
+	private static List<Rectangle> mergeColumns(final List<Rectangle> rectangles) {
+		Collections.sort(rectangles, BY_COLUMN);
+		final List<Rectangle> merged = new ArrayList<>();
+		Rectangle last = null;
+		for (Rectangle rectangle : rectangles) {
+			if (last != null && last.x == rectangle.x && last.width == rectangle.width
+					&& rectangle.y <= last.y + last.height + TOLERANCE) {
+				last.height = Math.max(last.height, rectangle.y + rectangle.height - last.y);
+			} else {
+				last = new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+				merged.add(last);
+			}
+		}
+		return merged;
+	}
+}
@@ -24,6 +24,7 @@ public class ImageCell<T extends PDPage> extends Cell<T> {
 
 	public void scaleToFit() {
 		img = img.scale(getInnerWidth());
+		invalidateRowHeight();
 	}
 
 	ImageCell(Row<T> row, float width, Image image, boolean isCalculated, HorizontalAlignment align,
@@ -43,13 +44,13 @@ public class ImageCell<T extends PDPage> extends Cell<T> {
 	}
 
 	@Override
-	public float getHorizontalFreeSpace() {
-		return getInnerWidth() - img.getWidth();
+	float getHorizontalFreeSpace(float innerWidth) {
+		return innerWidth - img.getWidth();
 	}
 	
 	@Override
-	public float getVerticalFreeSpace() {
-		return getInnerHeight() - img.getHeight();
+	float getVerticalFreeSpace(float innerHeight) {
+		return innerHeight - img.getHeight();
 	}
 
 
@@ -0,0 +1,236 @@
+package be.quodlibet.boxable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Page breaks of a {@link Table}, computed from the row heights before
+ * anything is drawn. {@link Table#draw()} executes the plan, and
+ * {@link Table#getPaginationPlan()} gives access to it up front, e.g. to
+ * find out how many pages a table needs.
+ * </p>
+ * <p>
+ * The plan is a snapshot: it is only valid as long as the table, its rows
+ * and its current position don't change.
+ * </p>
+ */
+public final class PaginationPlan {
+
+	private final List<Page> pages = new ArrayList<>();
+
+	private final boolean[] headerPageBreaks;
+
+	private final boolean[] rowPageBreaks;
+
+	private float yEnd;
+
+	PaginationPlan(final int rowCount, final TableState startState) {
+		this.headerPageBreaks = new boolean[rowCount];
+		this.rowPageBreaks = new boolean[rowCount];
+		this.yEnd = startState.getYStart();
+		pages.add(new Page(0, startState, false));
+	}
+
+	/**
+	 * <p>
+	 * Starts a new page because the header rows together with the first data
+	 * rows don't fit on the current page anymore.
+	 * </p>
+	 */
+	void addHeaderPageBreak(final int row, final float yStart) {
+		headerPageBreaks[row] = true;
+		addPage(row, yStart, false);
+	}
+
+	/**
+	 * <p>
+	 * Starts a new page because the row doesn't fit on the current page
+	 * anymore. The header rows are repeated on top of the new page.
+	 * </p>
+	 */
+	void addRowPageBreak(final int row, final float yStart, final boolean headerRepeated) {
+		rowPageBreaks[row] = true;
+		addPage(row, yStart, headerRepeated);
+	}
+
+	private void addPage(final int row, final float yStart, final boolean headerRepeated) {
+		endPage(row);
+		pages.add(new Page(row, new TableState(yStart, false, false), headerRepeated));
+		yEnd = yStart;
+	}
+
+	void advance(final float height) {
+		yEnd -= height;
+	}
+
+	void end(final int rowCount) {
+		endPage(rowCount);
+	}
+
+	private void endPage(final int row) {
+		final Page page = pages.get(pages.size() - 1);
+		page.endRow = row;
+		page.yEnd = yEnd;
+	}
+
+	/**
+	 * @param row
+	 *            Index of the row in {@link Table#getRows()}
+	 * @return {@code true} if a new page is started before the row because it
+	 *         is a header row, which doesn't fit on the page together with
+	 *         the first data rows
+	 */
+	boolean isHeaderPageBreak(final int row) {
+		return headerPageBreaks[row];
+	}
+
+	/**
+	 * @param row
+	 *            Index of the row in {@link Table#getRows()}
+	 * @return {@code true} if a new page is started before the row because it
+	 *         doesn't fit on the page
+	 */
+	boolean isRowPageBreak(final int row) {
+		return rowPageBreaks[row];
+	}
+
+	/**
+	 * <p>
+	 * Retrieves all pages the table is drawn on. The first one is the page
+	 * the table starts on, which may stay empty if the table starts with a
+	 * page break.
+	 * </p>
+	 *
+	 * @return pages of the table
+	 */
+	public List<Page> getPages() {
+		return Collections.unmodifiableList(pages);
+	}
+
+	/**
+	 * @return number of pages the table is drawn on
+	 */
+	public int getPageCount() {
+		return pages.size();
+	}
+
+	/**
+	 * @return number of new pages started while drawing the table
+	 */
+	public int getPageBreakCount() {
+		return pages.size() - 1;
+	}
+
+	/**
+	 * @return total height of the table on all pages, including repeated
+	 *         header rows
+	 */
+	public float getHeight() {
+		float height = 0;
+		for (final Page page : pages) {
+			height += page.getHeight();
+		}
+		return height;
+	}
+
+	/**
+	 * @return Y position after the last row, as returned by
+	 *         {@link Table#draw()}
+	 */
+	public float getYEnd() {
+		return yEnd;
+	}
+
+	/**
+	 * <p>
+	 * Rows of the table drawn on a single page.
+	 * </p>
+	 */
+	public static final class Page {
+
+		private final int startRow;
+
+		private final TableState startState;
+
+		private final boolean headerRepeated;
+
+		private int endRow;
+
+		private float yEnd;
+
+		private Page(final int startRow, final TableState startState, final boolean headerRepeated) {
+			this.startRow = startRow;
+			this.startState = startState;
+			this.headerRepeated = headerRepeated;
+		}
+
+		/**
+		 * @return index of the first row in {@link Table#getRows()} on this
+		 *         page
+		 */
+		public int getStartRow() {
+			return startRow;
+		}
+
+		/**
+		 * @return index after the last row in {@link Table#getRows()} on
+		 *         this page
+		 */
+		public int getEndRow() {
+			return endRow;
+		}
+
+		/**
+		 * @return number of rows on this page, not counting repeated header
+		 *         rows
+		 */
+		public int getRowCount() {
+			return endRow - startRow;
+		}
+
+		/**
+		 * @return {@code true} if the header rows are repeated on top of this
+		 *         page
+		 */
+		public boolean isHeaderRepeated() {
+			return headerRepeated;
+		}
+
+		/**
+		 * @return Y position where the table starts on this page
+		 */
+		public float getYStart() {
+			return startState.getYStart();
+		}
+
+		/**
+		 * <p>
+		 * Retrieves the state to start a shard of the table with, which
+		 * contains the header rows and the rows from this page on. Such a
+		 * shard draws the same pages as the whole table does from here.
+		 * </p>
+		 *
+		 * @return {@link TableState} of the table on top of this page
+		 * @see Table#setStartState(TableState)
+		 */
+		public TableState getStartState() {
+			return startState;
+		}
+
+		/**
+		 * @return Y position where the table ends on this page
+		 */
+		public float getYEnd() {
+			return yEnd;
+		}
+
+		/**
+		 * @return height of the table on this page
+		 */
+		public float getHeight() {
+			return startState.getYStart() - yEnd;
+		}
+	}
+}
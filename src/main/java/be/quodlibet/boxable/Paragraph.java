@@ -6,23 +6,29 @@ package be.quodlibet.boxable;
 
 import java.awt.Color;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 
+import be.quodlibet.boxable.text.DefaultWrappingFunction;
 import be.quodlibet.boxable.text.PipelineLayer;
 import be.quodlibet.boxable.text.Token;
+import be.quodlibet.boxable.text.TokenBuffer;
 import be.quodlibet.boxable.text.TokenType;
 import be.quodlibet.boxable.text.Tokenizer;
 import be.quodlibet.boxable.text.WrappingFunction;
+import be.quodlibet.boxable.text.WrappingFunctionAdapter;
 import be.quodlibet.boxable.utils.FontUtils;
+import be.quodlibet.boxable.utils.GlyphWidths;
 import be.quodlibet.boxable.utils.PDStreamUtils;
 
 public class Paragraph {
@@ -45,20 +51,15 @@ public class Paragraph {
 	private final static int BULLET_SPACE = 2;
 
 	private boolean drawDebug;
-	private final Map<Integer, Float> lineWidths = new HashMap<>();
-	private Map<Integer, List<Token>> mapLineTokens = new LinkedHashMap<>();
-	private float maxLineWidth = Integer.MIN_VALUE;
+	private Layout layout;
+	private Layout measuredLayout;
+	private boolean plainTextFastPath = true;
 
 	public Paragraph(String text, PDFont font, float fontSize, float width, final HorizontalAlignment align) {
 		this(text, font, fontSize, width, align, null);
 	}
 
-	private static final WrappingFunction DEFAULT_WRAP_FUNC = new WrappingFunction() {
-		@Override
-		public String[] getLines(String t) {
-			return t.split("(?<=\\s|-|@|,|\\.|:|;)");
-		}
-	};
+	private static final WrappingFunction DEFAULT_WRAP_FUNC = new DefaultWrappingFunction();
 
 	public Paragraph(String text, PDFont font, int fontSize, int width) {
 		this(text, font, fontSize, width, HorizontalAlignment.LEFT, null);
@@ -74,16 +75,37 @@ public class Paragraph {
 		this(text, font, fontSize, width, align, color, textType, wrappingFunction, 1);
 	}
 
+	@SuppressWarnings("deprecation")
 	public Paragraph(String text, PDFont font, float fontSize, float width, final HorizontalAlignment align,
 			final Color color, final TextType textType, WrappingFunction wrappingFunction, float lineSpacing) {
+		this(text, font, fontSize, width, align, color, textType, wrappingFunction, lineSpacing,
+				FontUtils.getDefaultfonts());
+	}
+
+	/**
+	 * <p>
+	 * Constructs a paragraph using the default fonts of the document it is
+	 * drawn into for bold and italic text.
+	 * </p>
+	 */
+	public Paragraph(String text, PDFont font, float fontSize, float width, final HorizontalAlignment align,
+			final Color color, final TextType textType, WrappingFunction wrappingFunction, float lineSpacing,
+			final RenderContext renderContext) {
+		this(text, font, fontSize, width, align, color, textType, wrappingFunction, lineSpacing,
+				renderContext.getDefaultFonts());
+	}
+
+	private Paragraph(String text, PDFont font, float fontSize, float width, final HorizontalAlignment align,
+			final Color color, final TextType textType, WrappingFunction wrappingFunction, float lineSpacing,
+			final Map<String, PDFont> defaultFonts) {
 		this.color = color;
 		this.text = text;
 		this.font = font;
 		// check if we have different default font for italic and bold text
-		if(!FontUtils.getDefaultfonts().isEmpty()){
-			fontBold = FontUtils.getDefaultfonts().get("fontBold");
-			fontBoldItalic = FontUtils.getDefaultfonts().get("fontBoldItalic");
-			fontItalic = FontUtils.getDefaultfonts().get("fontItalic");
+		if(!defaultFonts.isEmpty()){
+			fontBold = defaultFonts.get("fontBold");
+			fontBoldItalic = defaultFonts.get("fontBoldItalic");
+			fontItalic = defaultFonts.get("fontItalic");
 		}
 		this.fontSize = fontSize;
 		this.width = width;
@@ -94,10 +116,67 @@ public class Paragraph {
 	}
 
 	public List<String> getLines() {
-		final List<String> result = new ArrayList<>();
-		final List<Token> tokens = Tokenizer.tokenize(text, wrappingFunction);
+		return Collections.unmodifiableList(Arrays.asList(getLayout().lines));
+	}
+
+	/**
+	 * <p>
+	 * Retrieves the cached {@link Layout} of this paragraph, laying the text out
+	 * again only if one of the parameters it depends on has changed since.
+	 * </p>
+	 *
+	 * @return current {@link Layout}
+	 */
+	private Layout getLayout() {
+		if (layout == null || !layout.isValidFor(width, font, fontSize, align, wrappingFunction)) {
+			layout = computeLayout(width, false);
+		}
+		return layout;
+	}
+
+	/**
+	 * <p>
+	 * Retrieves a {@link Layout} for the given width which has at least the
+	 * line count and the maximal line width. This is the cached full layout if
+	 * there is one, otherwise the text is only measured.
+	 * </p>
+	 *
+	 * @param width
+	 *            Width of the paragraph
+	 * @return full or measure only {@link Layout}
+	 */
+	private Layout getMeasuredLayout(final float width) {
+		if (layout != null && layout.isValidFor(width, font, fontSize, align, wrappingFunction)) {
+			return layout;
+		}
+		if (measuredLayout == null || !measuredLayout.isValidFor(width, font, fontSize, align, wrappingFunction)) {
+			measuredLayout = computeLayout(width, true);
+		}
+		return measuredLayout;
+	}
+
+	/**
+	 * <p>
+	 * Measures the paragraph as if it had the given width, without building
+	 * its lines. Drawing the paragraph lays it out completely.
+	 * </p>
+	 *
+	 * @param width
+	 *            Width of the paragraph
+	 * @return line count, maximal line width and height of the paragraph
+	 */
+	public Measure measure(final float width) {
+		final Layout measured = getMeasuredLayout(width);
+		return new Measure(measured.lineCount, measured.maxLineWidth, getHeight(measured.lineCount));
+	}
+
+	private Layout computeLayout(final float width, final boolean measureOnly) {
+		if (plainTextFastPath && text != null && text.indexOf('<') < 0) {
+			return computePlainTextLayout(width, measureOnly);
+		}
+		final LayoutBuilder lines = new LayoutBuilder(measureOnly);
+		final TokenBuffer tokens = Tokenizer.tokenizeToBuffer(text, wrappingFunction);
 
-		int lineCounter = 0;
 		boolean italic = false;
 		boolean bold = false;
 		boolean listElement = false;
@@ -105,13 +184,17 @@ public class Paragraph {
 		int orderListElement = 1;
 		int numberOfOrderedLists = 0;
 		int listLevel = 0;
-		Stack<HTMLListNode> stack= new Stack<>();
+		Deque<HTMLListNode> stack = new ArrayDeque<>();
 		
-		final PipelineLayer textInLine = new PipelineLayer();
-		final PipelineLayer sinceLastWrapPoint = new PipelineLayer();
-
-		for (final Token token : tokens) {
-			switch (token.getType()) {
+		final PipelineLayer textInLine = new PipelineLayer(measureOnly);
+		final PipelineLayer sinceLastWrapPoint = new PipelineLayer(measureOnly);
+
+		for (int index = 0; index < tokens.size(); index++) {
+			final TokenType type = tokens.getType(index);
+			// tags are shared singletons and text only references its range
+			final Token token = type == TokenType.TEXT ? Token.text(text, tokens.getStart(index), tokens.getEnd(index))
+					: tokens.getTag(index);
+			switch (type) {
 			case OPEN_TAG:
 				if (isBold(token)) {
 					bold = true;
@@ -124,7 +207,7 @@ public class Paragraph {
 					if (token.getData().equals("ol")) {
 						numberOfOrderedLists++;
 						if(listLevel > 1){
-							stack.add(new HTMLListNode(orderListElement-1, stack.isEmpty() ? String.valueOf(orderListElement-1)+"." : stack.peek().getValue() + String.valueOf(orderListElement-1) + "."));
+							stack.push(new HTMLListNode(orderListElement-1, stack.isEmpty() ? String.valueOf(orderListElement-1)+"." : stack.peek().getValue() + String.valueOf(orderListElement-1) + "."));
 						}
 						orderListElement = 1;
 
@@ -132,24 +215,16 @@ public class Paragraph {
 						// check if you have some text before this list, if you don't then you really don't need extra line break for that
 						if (textInLine.trimmedWidth() > 0) {
 							// this is our line
-							result.add(textInLine.trimmedText());
-							lineWidths.put(lineCounter, textInLine.trimmedWidth());
-							mapLineTokens.put(lineCounter, textInLine.tokens());
-							maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
+							lines.add(textInLine);
 							textInLine.reset();
-							lineCounter++;
 						}
 					} else if (token.getData().equals("ul")) {
 						textInLine.push(sinceLastWrapPoint);
 						// check if you have some text before this list, if you don't then you really don't need extra line break for that
 						if (textInLine.trimmedWidth() > 0) {
 							// this is our line
-							result.add(textInLine.trimmedText());
-							lineWidths.put(lineCounter, textInLine.trimmedWidth());
-							mapLineTokens.put(lineCounter, textInLine.tokens());
-							maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
+							lines.add(textInLine);
 							textInLine.reset();
-							lineCounter++;
 						}
 					}
 				}
@@ -177,30 +252,22 @@ public class Paragraph {
 					// ensure extra space after each lists
 					// no need to worry about current line text because last closing <li> tag already done that
 					if(listLevel == 0){
-						result.add(" ");
-						lineWidths.put(lineCounter, 0.0f);
-						mapLineTokens.put(lineCounter, new ArrayList<Token>());
-						lineCounter++;
+						lines.addEmpty();
 					}
 				} else if (isListElement(token)) {
 					// wrap at last wrap point?
 					if (textInLine.width() + sinceLastWrapPoint.trimmedWidth() > width) {
 						// this is our line
-						result.add(textInLine.trimmedText());
-						lineWidths.put(lineCounter, textInLine.trimmedWidth());
-						mapLineTokens.put(lineCounter, textInLine.tokens());
-						maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
+						lines.add(textInLine);
 						textInLine.reset();
-						lineCounter++;
 						// wrapping at last wrap point
 						if (numberOfOrderedLists>0) {
 							String orderingNumber = stack.isEmpty() ? String.valueOf(orderListElement) + "." : stack.pop().getValue() + ".";
-							stack.add(new HTMLListNode(orderListElement, orderingNumber));
+							stack.push(new HTMLListNode(orderListElement, orderingNumber));
 							String tab = String.valueOf(indentLevel(DEFAULT_TAB));
 							String orderingNumberAndTab = orderingNumber + tab;
 							try {
-								textInLine.push(currentFont, fontSize, new Token(TokenType.PADDING, String
-										.valueOf(font.getStringWidth(orderingNumberAndTab) / 1000 * getFontSize())));
+								textInLine.push(currentFont, fontSize, Token.padding(FontUtils.getStringWidth(font, orderingNumberAndTab, getFontSize())));
 							} catch (IOException e) {
 								e.printStackTrace();
 							}
@@ -209,8 +276,7 @@ public class Paragraph {
 							try {
 								// if it's not left aligned then ignore list and list element and deal with it as normal text where <li> mimic <br> behaviour
 								String tabBullet = getAlign().equals(HorizontalAlignment.LEFT) ? indentLevel(DEFAULT_TAB*Math.max(listLevel - 1, 0)) + indentLevel(DEFAULT_TAB_AND_BULLET) : indentLevel(DEFAULT_TAB);
-								textInLine.push(currentFont, fontSize, new Token(TokenType.PADDING,
-										String.valueOf(font.getStringWidth(tabBullet) / 1000 * getFontSize())));
+								textInLine.push(currentFont, fontSize, Token.padding(FontUtils.getStringWidth(font, tabBullet, getFontSize())));
 							} catch (IOException e) {
 								e.printStackTrace();
 							}
@@ -220,50 +286,31 @@ public class Paragraph {
 					// wrapping at this must-have wrap point
 					textInLine.push(sinceLastWrapPoint);
 					// this is our line
-					result.add(textInLine.trimmedText());
-					lineWidths.put(lineCounter, textInLine.trimmedWidth());
-					mapLineTokens.put(lineCounter, textInLine.tokens());
-					maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
+					lines.add(textInLine);
 					textInLine.reset();
-					lineCounter++;
 					listElement = false;
 				}
 				if (isParagraph(token)) {
 					if (textInLine.width() + sinceLastWrapPoint.trimmedWidth() > width) {
 						// this is our line
-						result.add(textInLine.trimmedText());
-						lineWidths.put(lineCounter, textInLine.trimmedWidth());
-						maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
-						mapLineTokens.put(lineCounter, textInLine.tokens());
-						lineCounter++;
+						lines.add(textInLine);
 						textInLine.reset();
 					}
 					// wrapping at this must-have wrap point
 					textInLine.push(sinceLastWrapPoint);
 					// this is our line
-					result.add(textInLine.trimmedText());
-					lineWidths.put(lineCounter, textInLine.trimmedWidth());
-					mapLineTokens.put(lineCounter, textInLine.tokens());
-					maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
+					lines.add(textInLine);
 					textInLine.reset();
-					lineCounter++;
 					
 					// extra spacing because it's a paragraph
-					result.add(" ");
-					lineWidths.put(lineCounter, 0.0f);
-					mapLineTokens.put(lineCounter, new ArrayList<Token>());
-					lineCounter++;
+					lines.addEmpty();
 				}
 				break;
 			case POSSIBLE_WRAP_POINT:
 				if (textInLine.width() + sinceLastWrapPoint.trimmedWidth() > width) {
 					// this is our line
 					if (!textInLine.isEmpty()) {
-						result.add(textInLine.trimmedText());
-						lineWidths.put(lineCounter, textInLine.trimmedWidth());
-						maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
-						mapLineTokens.put(lineCounter, textInLine.tokens());
-						lineCounter++;
+						lines.add(textInLine);
 						textInLine.reset();
 					}
 					// wrapping at last wrap point
@@ -272,8 +319,7 @@ public class Paragraph {
 							String tab = getAlign().equals(HorizontalAlignment.LEFT) ? indentLevel(DEFAULT_TAB*Math.max(listLevel - 1, 0)) + indentLevel(DEFAULT_TAB) : indentLevel(DEFAULT_TAB);
 							String orderingNumber = stack.isEmpty() ? String.valueOf(orderListElement) + "." : stack.peek().getValue() + "." + String.valueOf(orderListElement-1) + ".";
 							try {
-								textInLine.push(currentFont, fontSize, new Token(TokenType.PADDING,
-										String.valueOf(font.getStringWidth(tab+orderingNumber) / 1000 * getFontSize())));
+								textInLine.push(currentFont, fontSize, Token.padding(FontUtils.getStringWidth(font, tab+orderingNumber, getFontSize())));
 							} catch (IOException e) {
 								e.printStackTrace();
 							}
@@ -281,8 +327,7 @@ public class Paragraph {
 							try {
 								// if it's not left aligned then ignore list and list element and deal with it as normal text where <li> mimic <br> behavior
 								String tabBullet = getAlign().equals(HorizontalAlignment.LEFT) ? indentLevel(DEFAULT_TAB*Math.max(listLevel - 1, 0)) + indentLevel(DEFAULT_TAB_AND_BULLET)  : indentLevel(DEFAULT_TAB);
-								textInLine.push(currentFont, fontSize, new Token(TokenType.PADDING,
-										String.valueOf(font.getStringWidth(tabBullet) / 1000 * getFontSize())));
+								textInLine.push(currentFont, fontSize, Token.padding(FontUtils.getStringWidth(font, tabBullet, getFontSize())));
 							} catch (IOException e) {
 								// TODO Auto-generated catch block
 								e.printStackTrace();
@@ -298,12 +343,8 @@ public class Paragraph {
 				// wrap at last wrap point?
 				if (textInLine.width() + sinceLastWrapPoint.trimmedWidth() > width) {
 					// this is our line
-					result.add(textInLine.trimmedText());
-					lineWidths.put(lineCounter, textInLine.trimmedWidth());
-					mapLineTokens.put(lineCounter, textInLine.tokens());
-					maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
+					lines.add(textInLine);
 					textInLine.reset();
-					lineCounter++;
 					// wrapping at last wrap point
 					if (listElement) {
 						if(!getAlign().equals(HorizontalAlignment.LEFT)) {
@@ -315,8 +356,7 @@ public class Paragraph {
 							String tab = String.valueOf(indentLevel(DEFAULT_TAB));
 							String orderingNumberAndTab = orderingNumber + tab;
 							try {
-								textInLine.push(currentFont, fontSize, new Token(TokenType.PADDING, String
-										.valueOf(font.getStringWidth(orderingNumberAndTab) / 1000 * getFontSize())));
+								textInLine.push(currentFont, fontSize, Token.padding(FontUtils.getStringWidth(font, orderingNumberAndTab, getFontSize())));
 							} catch (IOException e) {
 								e.printStackTrace();
 							}
@@ -324,8 +364,7 @@ public class Paragraph {
 							try {
 								// if it's not left aligned then ignore list and list element and deal with it as normal text where <li> mimic <br> behaviour
 								String tabBullet = getAlign().equals(HorizontalAlignment.LEFT) ? indentLevel(DEFAULT_TAB*Math.max(listLevel - 1, 0)) + indentLevel(DEFAULT_TAB_AND_BULLET) : indentLevel(DEFAULT_TAB);
-								textInLine.push(currentFont, fontSize, new Token(TokenType.PADDING,
-										String.valueOf(font.getStringWidth(tabBullet) / 1000 * getFontSize())));
+								textInLine.push(currentFont, fontSize, Token.padding(FontUtils.getStringWidth(font, tabBullet, getFontSize())));
 							} catch (IOException e) {
 								e.printStackTrace();
 							}
@@ -337,10 +376,7 @@ public class Paragraph {
 					// check if you have some text before this paragraph, if you don't then you really don't need extra line break for that
 					if (textInLine.trimmedWidth() > 0) {
 						// extra spacing because it's a paragraph
-						result.add(" ");
-						lineWidths.put(lineCounter, 0.0f);
-						mapLineTokens.put(lineCounter, new ArrayList<Token>());
-						lineCounter++;
+						lines.addEmpty();
 					}
 				} else if (isListElement(token)) {
 					listElement = true;
@@ -348,8 +384,7 @@ public class Paragraph {
 					try {
 						// if it's not left aligned then ignore list and list element and deal with it as normal text where <li> mimic <br> behaviour
 						String tab = getAlign().equals(HorizontalAlignment.LEFT) ? indentLevel(DEFAULT_TAB*Math.max(listLevel - 1, 0)) + indentLevel(DEFAULT_TAB) : indentLevel(DEFAULT_TAB);
-						textInLine.push(currentFont, fontSize, new Token(TokenType.PADDING,
-								String.valueOf(font.getStringWidth(tab) / 1000 * getFontSize())));
+						textInLine.push(currentFont, fontSize, Token.padding(FontUtils.getStringWidth(font, tab, getFontSize())));
 						if (numberOfOrderedLists>0) {
 							// if it's ordering list then move depending on your: ordering number + ". "
 							String orderingNumber;
@@ -370,12 +405,8 @@ public class Paragraph {
 				} else {
 					// wrapping at this must-have wrap point
 					textInLine.push(sinceLastWrapPoint);
-					result.add(textInLine.trimmedText());
-					lineWidths.put(lineCounter, textInLine.trimmedWidth());
-					mapLineTokens.put(lineCounter, textInLine.tokens());
-					maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
+					lines.add(textInLine);
 					textInLine.reset();
-					lineCounter++;
 					if(listLevel>0){
 						// preserve current indent
 						try {
@@ -389,13 +420,12 @@ public class Paragraph {
 									orderingNumber = String.valueOf(orderListElement) + ". ";
 								}
 								String tabAndOrderingNumber = tab + orderingNumber;
-								textInLine.push(currentFont, fontSize, new Token(TokenType.PADDING, String.valueOf(font.getStringWidth(tabAndOrderingNumber) / 1000 * getFontSize())));
+								textInLine.push(currentFont, fontSize, Token.padding(FontUtils.getStringWidth(font, tabAndOrderingNumber, getFontSize())));
 								orderListElement++;
 							} else {
 								if(getAlign().equals(HorizontalAlignment.LEFT)){
 									String tab = indentLevel(DEFAULT_TAB*Math.max(listLevel - 1, 0)) + indentLevel(DEFAULT_TAB) + indentLevel(BULLET_SPACE);
-									textInLine.push(currentFont, fontSize, new Token(TokenType.PADDING,
-											String.valueOf(font.getStringWidth(tab) / 1000 * getFontSize())));
+									textInLine.push(currentFont, fontSize, Token.padding(FontUtils.getStringWidth(font, tab, getFontSize())));
 								}
 							}
 						} catch (IOException e) {
@@ -405,77 +435,7 @@ public class Paragraph {
 				}
 				break;
 			case TEXT:
-				try {
-					String word = token.getData();
-					if(font.getStringWidth(word) / 1000f * fontSize > width && width > font.getAverageFontWidth() / 1000f * fontSize) {
-						// you need to check if you have already something in your line 
-						boolean alreadyTextInLine = false;
-						if(textInLine.trimmedWidth()>0){
-							alreadyTextInLine = true;
-						}
-						while (font.getStringWidth(word) / 1000f * fontSize > width) {
-						float width = 0;
-						float firstPartWordWidth = 0;
-						float restOfTheWordWidth = 0;
-						String lastTextToken = word;
-						StringBuilder firstPartOfWord = new StringBuilder();
-						StringBuilder restOfTheWord = new StringBuilder();
-						for (int i = 0; i < lastTextToken.length(); i++) {
-							char c = lastTextToken.charAt(i);
-							try {
-								width += (font.getStringWidth("" + c) / 1000f * fontSize);
-							} catch (IOException e) {
-								e.printStackTrace();
-							}
-							if(alreadyTextInLine){
-								if (width < this.width - textInLine.trimmedWidth()) {
-									firstPartOfWord.append("" + c);
-									firstPartWordWidth = Math.max(width, firstPartWordWidth);
-								} else {
-									restOfTheWord.append("" + c);
-									restOfTheWordWidth = Math.max(width, restOfTheWordWidth);
-								}
-							} else {
-								if (width < this.width) {
-									firstPartOfWord.append("" + c);
-									firstPartWordWidth = Math.max(width, firstPartWordWidth);
-								} else {
-									if(i==0){
-										firstPartOfWord.append("" + c);
-										for (int j = 1; j< lastTextToken.length(); j++){
-											restOfTheWord.append("" + lastTextToken.charAt(j));
-										}
-										break;
-									} else {
-										restOfTheWord.append("" + c);
-										restOfTheWordWidth = Math.max(width, restOfTheWordWidth);
-										
-									}
-								}
-							}
-						}
-						// reset
-						alreadyTextInLine = false;
-						sinceLastWrapPoint.push(currentFont, fontSize,
-								new Token(TokenType.TEXT, firstPartOfWord.toString()));
-						textInLine.push(sinceLastWrapPoint);
-						// this is our line
-						result.add(textInLine.trimmedText());
-						lineWidths.put(lineCounter, textInLine.trimmedWidth());
-						mapLineTokens.put(lineCounter, textInLine.tokens());
-						maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
-						textInLine.reset();
-						lineCounter++;
-						word = restOfTheWord.toString();
-						}
-						sinceLastWrapPoint.push(currentFont, fontSize, new Token(TokenType.TEXT, word));
-					} else {
-						sinceLastWrapPoint.push(currentFont, fontSize, token);
-					}
-				
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
+				pushText(token, currentFont, width, textInLine, sinceLastWrapPoint, lines);
 				break;
 			}
 		}
@@ -483,14 +443,112 @@ public class Paragraph {
 
 		{
 			textInLine.push(sinceLastWrapPoint);
-			result.add(textInLine.trimmedText());
-			lineWidths.put(lineCounter, textInLine.trimmedWidth());
-			mapLineTokens.put(lineCounter, textInLine.tokens());
-			maxLineWidth = Math.max(maxLineWidth, textInLine.trimmedWidth());
+			lines.add(textInLine);
 		}
 
-		return result;
+		return lines.toLayout(this, width);
+	}
+
+	/**
+	 * <p>
+	 * Lays out text without any markup. Such text consists of text tokens
+	 * between possible wrap points only, so the lines are built straight from
+	 * the wrap points, without tokenizing the text and without the state
+	 * needed for tags and lists. The result is the same as the one of the
+	 * general layout.
+	 * </p>
+	 *
+	 * @return {@link Layout} of the text
+	 */
+	private Layout computePlainTextLayout(final float width, final boolean measureOnly) {
+		final LayoutBuilder lines = new LayoutBuilder(measureOnly);
+		final PipelineLayer textInLine = new PipelineLayer(measureOnly);
+		final PipelineLayer sinceLastWrapPoint = new PipelineLayer(measureOnly);
+
+		final int[] wrapPoints = WrappingFunctionAdapter.of(wrappingFunction).getWrapPoints(text);
+		int textStart = 0;
+		int minWrapPoint = 0;
+		for (int i = 0; i <= wrapPoints.length; i++) {
+			final int wrapPoint;
+			if (i < wrapPoints.length && wrapPoints[i] >= minWrapPoint && wrapPoints[i] < text.length()) {
+				wrapPoint = wrapPoints[i];
+				minWrapPoint = wrapPoint + 1;
+			} else {
+				// like the tokenizer, ignore all wrap points after one that
+				// isn't in ascending order
+				wrapPoint = text.length();
+				i = wrapPoints.length;
+			}
+			if (textStart < wrapPoint) {
+				pushText(Token.text(text, textStart, wrapPoint), font, width, textInLine, sinceLastWrapPoint, lines);
+			}
+			if (textInLine.width() + sinceLastWrapPoint.trimmedWidth() > width && !textInLine.isEmpty()) {
+				// this is our line
+				lines.add(textInLine);
+				textInLine.reset();
+			}
+			textInLine.push(sinceLastWrapPoint);
+			textStart = wrapPoint;
+		}
+		if (sinceLastWrapPoint.trimmedWidth() + textInLine.trimmedWidth() > 0) {
+			textInLine.push(sinceLastWrapPoint);
+			lines.add(textInLine);
+		}
 
+		return lines.toLayout(this, width);
+	}
+
+	/**
+	 * <p>
+	 * Pushes a text token since the last wrap point, splitting words which
+	 * are too wide for a whole line.
+	 * </p>
+	 */
+	private void pushText(final Token token, final PDFont currentFont, final float width,
+			final PipelineLayer textInLine, final PipelineLayer sinceLastWrapPoint, final LayoutBuilder lines) {
+		try {
+			int wordStart = token.getStart();
+			final int wordEnd = token.getEnd();
+			if(FontUtils.getStringWidth(font, text, wordStart, wordEnd, fontSize) > width && width > font.getAverageFontWidth() / 1000f * fontSize) {
+				// you need to check if you have already something in your line 
+				boolean alreadyTextInLine = false;
+				if(textInLine.trimmedWidth()>0){
+					alreadyTextInLine = true;
+				}
+				final GlyphWidths glyphWidths = FontUtils.getGlyphWidths(font);
+				while (FontUtils.getStringWidth(font, text, wordStart, wordEnd, fontSize) > width) {
+				float firstPartWidth = 0;
+				// the first part of the word is what still fits into the line
+				final float availableWidth = alreadyTextInLine ? width - textInLine.trimmedWidth() : width;
+				int firstPartEnd = wordStart;
+				while (firstPartEnd < wordEnd) {
+					firstPartWidth += (glyphWidths.getWidth(font, text.charAt(firstPartEnd)) / 1000f * fontSize);
+					if (firstPartWidth >= availableWidth) {
+						break;
+					}
+					firstPartEnd++;
+				}
+				if (!alreadyTextInLine && firstPartEnd == wordStart) {
+					// not even one character fits, take it anyway
+					firstPartEnd++;
+				}
+				// reset
+				alreadyTextInLine = false;
+				sinceLastWrapPoint.push(currentFont, fontSize, Token.text(text, wordStart, firstPartEnd));
+				textInLine.push(sinceLastWrapPoint);
+				// this is our line
+				lines.add(textInLine);
+				textInLine.reset();
+				wordStart = firstPartEnd;
+				}
+				sinceLastWrapPoint.push(currentFont, fontSize, Token.text(text, wordStart, wordEnd));
+			} else {
+				sinceLastWrapPoint.push(currentFont, fontSize, token);
+			}
+		
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
 	private boolean isItalic(final Token token) {
@@ -575,7 +633,7 @@ public class Paragraph {
 					float y = (float) (cursorY - FontUtils.getHeight(font, fontSize)
 							- FontUtils.getDescent(font, fontSize) - 1.5);
 					try {
-						float titleWidth = font.getStringWidth(line) / 1000 * fontSize;
+						float titleWidth = FontUtils.getStringWidth(font, line, fontSize);
 						stream.moveTo(textX, y);
 						stream.lineTo(textX + titleWidth, y);
 						stream.stroke();
@@ -596,10 +654,14 @@ public class Paragraph {
 	}
 
 	public float getHeight() {
-		if (getLines().size() == 0) {
+		return getHeight(getMeasuredLayout(width).lineCount);
+	}
+
+	private float getHeight(final int lineCount) {
+		if (lineCount == 0) {
 			return 0;
 		} else {
-			return (getLines().size() - 1) * getLineSpacing() * getFontHeight() + getFontHeight();
+			return (lineCount - 1) * getLineSpacing() * getFontHeight() + getFontHeight();
 		}
 	}
 
@@ -668,12 +730,8 @@ public class Paragraph {
 	}
 
 	private float getHorizontalFreeSpace(final String text) {
-		try {
-			final float tw = font.getStringWidth(text.trim()) / 1000 * fontSize;
-			return width - tw;
-		} catch (IOException e) {
-			throw new IllegalStateException("Unable to calculate text width", e);
-		}
+		final float tw = FontUtils.getStringWidth(font, text.trim(), fontSize);
+		return width - tw;
 	}
 
 	public float getWidth() {
@@ -713,15 +771,85 @@ public class Paragraph {
 	}
 
 	public float getMaxLineWidth() {
-		return maxLineWidth;
+		return getMeasuredLayout(width).maxLineWidth;
+	}
+
+	/**
+	 * @return number of lines, including empty lines around lists and
+	 *         paragraphs
+	 */
+	public int getLineCount() {
+		return getMeasuredLayout(width).lineCount;
+	}
+
+	/**
+	 * @param line
+	 *            Index of the line
+	 * @return width of the line
+	 */
+	public float getLineWidth(int line) {
+		return getLayout().lineWidths[line];
+	}
+
+	/**
+	 * @param line
+	 *            Index of the line
+	 * @return index of the first token of the line, see
+	 *         {@link #getLineToken(int)}
+	 */
+	public int getLineTokenStart(int line) {
+		return getLayout().lineTokenStarts[line];
 	}
 
-	public float getLineWidth(int key) {
-		return lineWidths.get(key);
+	/**
+	 * @param line
+	 *            Index of the line
+	 * @return index after the last token of the line, see
+	 *         {@link #getLineToken(int)}
+	 */
+	public int getLineTokenEnd(int line) {
+		return getLayout().lineTokenStarts[line + 1];
 	}
 
+	/**
+	 * <p>
+	 * Retrieves a token of the laid out lines. The tokens of line {@code i}
+	 * are those from {@link #getLineTokenStart(int)} (inclusive) to
+	 * {@link #getLineTokenEnd(int)} (exclusive).
+	 * </p>
+	 *
+	 * @param index
+	 *            Index of the token
+	 * @return {@link Token} at the given index
+	 */
+	public Token getLineToken(int index) {
+		return getLayout().tokens[index];
+	}
+
+	/**
+	 * @deprecated Use {@link #getLineCount()}, {@link #getLineTokenStart(int)},
+	 *             {@link #getLineTokenEnd(int)} and {@link #getLineToken(int)}
+	 *             instead. This method will be removed in a future release
+	 * @return unmodifiable view of the tokens of each line by line index
+	 */
+	@Deprecated
 	public Map<Integer, List<Token>> getMapLineTokens() {
-		return mapLineTokens;
+		return getLayout().getLineTokensView();
+	}
+
+	/**
+	 * <p>
+	 * Enables or disables the layout of text without markup that bypasses
+	 * the tokenizer. Only meant for comparing both layouts in tests.
+	 * </p>
+	 *
+	 * @param plainTextFastPath
+	 *            {@code false} to lay out all text the general way
+	 */
+	void setPlainTextFastPath(boolean plainTextFastPath) {
+		this.plainTextFastPath = plainTextFastPath;
+		layout = null;
+		measuredLayout = null;
 	}
 
 	public float getLineSpacing() {
@@ -732,4 +860,157 @@ public class Paragraph {
 		this.lineSpacing = lineSpacing;
 	}
 
+	/**
+	 * <p>
+	 * Line count, maximal line width and height of a {@link Paragraph}, as
+	 * returned by {@link Paragraph#measure(float)}.
+	 * </p>
+	 */
+	public static final class Measure {
+
+		private final int lineCount;
+		private final float maxLineWidth;
+		private final float height;
+
+		private Measure(final int lineCount, final float maxLineWidth, final float height) {
+			this.lineCount = lineCount;
+			this.maxLineWidth = maxLineWidth;
+			this.height = height;
+		}
+
+		public int getLineCount() {
+			return lineCount;
+		}
+
+		public float getMaxLineWidth() {
+			return maxLineWidth;
+		}
+
+		public float getHeight() {
+			return height;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Collects the lines of a {@link Paragraph} while it is laid out. When
+	 * only measuring, just the line count and the maximal line width are kept.
+	 * </p>
+	 */
+	private static final class LayoutBuilder {
+
+		private final boolean measureOnly;
+		private final List<String> lines = new ArrayList<>();
+		private final List<Token> tokens = new ArrayList<>();
+		private int[] lineTokenStarts = new int[] { 0 };
+		private float[] lineWidths = new float[0];
+		private float maxLineWidth = Integer.MIN_VALUE;
+		private int lineCounter = 0;
+
+		private LayoutBuilder(final boolean measureOnly) {
+			this.measureOnly = measureOnly;
+		}
+
+		private void add(final PipelineLayer line) {
+			if (!measureOnly) {
+				lines.add(line.trimmedText());
+				line.appendTokensTo(tokens);
+				addLine(line.trimmedWidth());
+			}
+			maxLineWidth = Math.max(maxLineWidth, line.trimmedWidth());
+			lineCounter++;
+		}
+
+		private void addEmpty() {
+			if (!measureOnly) {
+				lines.add(" ");
+				addLine(0.0f);
+			}
+			lineCounter++;
+		}
+
+		private void addLine(final float lineWidth) {
+			if (lineCounter == lineWidths.length) {
+				final int capacity = Math.max(8, lineCounter * 2);
+				lineWidths = Arrays.copyOf(lineWidths, capacity);
+				lineTokenStarts = Arrays.copyOf(lineTokenStarts, capacity + 1);
+			}
+			lineWidths[lineCounter] = lineWidth;
+			lineTokenStarts[lineCounter + 1] = tokens.size();
+		}
+
+		private Layout toLayout(final Paragraph paragraph, final float width) {
+			if (measureOnly) {
+				return new Layout(paragraph, width, null, null, null, null, lineCounter, maxLineWidth);
+			}
+			return new Layout(paragraph, width, lines.toArray(new String[lineCounter]),
+					tokens.toArray(new Token[tokens.size()]), Arrays.copyOf(lineTokenStarts, lineCounter + 1),
+					Arrays.copyOf(lineWidths, lineCounter), lineCounter, maxLineWidth);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Immutable result of laying out a {@link Paragraph}, together with the
+	 * parameters it was computed for. The tokens of all lines are kept in a
+	 * single array, line {@code i} consists of the tokens
+	 * {@code lineTokenStarts[i]} to {@code lineTokenStarts[i + 1]}. A measure
+	 * only layout has no lines, widths and tokens.
+	 * </p>
+	 */
+	private static final class Layout {
+
+		private final float width;
+		private final PDFont font;
+		private final float fontSize;
+		private final HorizontalAlignment align;
+		private final WrappingFunction wrappingFunction;
+
+		private final String[] lines;
+		private final Token[] tokens;
+		private final int[] lineTokenStarts;
+		private final float[] lineWidths;
+		private final int lineCount;
+		private final float maxLineWidth;
+
+		// layouts are shared by threads drawing the same paragraph
+		private volatile Map<Integer, List<Token>> lineTokensView;
+
+		private Layout(final Paragraph paragraph, final float width, final String[] lines, final Token[] tokens,
+				final int[] lineTokenStarts, final float[] lineWidths, final int lineCount, final float maxLineWidth) {
+			this.width = width;
+			this.font = paragraph.font;
+			this.fontSize = paragraph.fontSize;
+			this.align = paragraph.align;
+			this.wrappingFunction = paragraph.wrappingFunction;
+			this.lines = lines;
+			this.tokens = tokens;
+			this.lineTokenStarts = lineTokenStarts;
+			this.lineWidths = lineWidths;
+			this.lineCount = lineCount;
+			this.maxLineWidth = maxLineWidth;
+		}
+
+		private boolean isValidFor(final float width, final PDFont font, final float fontSize,
+				final HorizontalAlignment align, final WrappingFunction wrappingFunction) {
+			return this.width == width && this.font == font && this.fontSize == fontSize && this.align == align
+					&& this.wrappingFunction == wrappingFunction;
+		}
+
+		private Map<Integer, List<Token>> getLineTokensView() {
+			Map<Integer, List<Token>> view = lineTokensView;
+			if (view == null) {
+				final Map<Integer, List<Token>> lineTokens = new LinkedHashMap<>();
+				final List<Token> allTokens = Arrays.asList(tokens);
+				for (int i = 0; i < lineCount; i++) {
+					lineTokens.put(i, Collections.unmodifiableList(allTokens.subList(lineTokenStarts[i], lineTokenStarts[i + 1])));
+				}
+				// threads racing here at worst build equal views
+				view = Collections.unmodifiableMap(lineTokens);
+				lineTokensView = view;
+			}
+			return view;
+		}
+	}
+
 }
@@ -0,0 +1,139 @@
+package be.quodlibet.boxable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+import be.quodlibet.boxable.utils.FontUtils;
+
+/**
+ * <p>
+ * Rendering state of a single {@link PDDocument}, passed to the cells and
+ * paragraphs drawn into it. Fonts loaded into a document can't be used in
+ * another one, so the default fonts are kept here instead of in
+ * {@link FontUtils}, and documents can be rendered concurrently without
+ * affecting each other.
+ * </p>
+ * <p>
+ * Each {@link Table} owns a context, see {@link Table#getRenderContext()},
+ * and tables of the same document may share one through
+ * {@link Table#setRenderContext(RenderContext)}. A context is dropped
+ * together with its tables. Font metrics are cached per {@link PDFont} by
+ * {@link FontUtils}, which is safe as each document loads its own fonts.
+ * </p>
+ */
+public final class RenderContext {
+
+	private final PDDocument document;
+
+	private volatile Map<String, PDFont> defaultFonts = Collections.emptyMap();
+
+	/**
+	 * @param document
+	 *            {@link PDDocument} to be drawn into
+	 */
+	public RenderContext(final PDDocument document) {
+		this.document = document;
+	}
+
+	public PDDocument getDocument() {
+		return document;
+	}
+
+	/**
+	 * <p>
+	 * Sets the fonts used by cells and paragraphs created from now on, instead
+	 * of the standard Helvetica fonts. The fonts must belong to the document of
+	 * this context.
+	 * </p>
+	 *
+	 * @param font
+	 *            font of the text
+	 * @param fontBold
+	 *            font of bold text and header cells
+	 * @param fontItalic
+	 *            font of italic text
+	 * @param fontBoldItalic
+	 *            font of bold italic text
+	 */
+	public void setDefaultFonts(final PDFont font, final PDFont fontBold, final PDFont fontItalic,
+			final PDFont fontBoldItalic) {
+		final Map<String, PDFont> fonts = new HashMap<>();
+		fonts.put("font", font);
+		fonts.put("fontBold", fontBold);
+		fonts.put("fontItalic", fontItalic);
+		fonts.put("fontBoldItalic", fontBoldItalic);
+		this.defaultFonts = Collections.unmodifiableMap(fonts);
+	}
+
+	/**
+	 * <p>
+	 * Loads the FreeSans fonts into the document and uses them as default
+	 * fonts.
+	 * </p>
+	 */
+	public void setSansFontsAsDefault() {
+		setDefaultFonts(FontUtils.loadFont(document, "fonts/FreeSans.ttf"),
+				FontUtils.loadFont(document, "fonts/FreeSansBold.ttf"),
+				FontUtils.loadFont(document, "fonts/FreeSansOblique.ttf"),
+				FontUtils.loadFont(document, "fonts/FreeSansBoldOblique.ttf"));
+	}
+
+	/**
+	 * <p>
+	 * Retrieves the default fonts with the keys {@code font},
+	 * {@code fontBold}, {@code fontItalic} and {@code fontBoldItalic}. As long
+	 * as none are set, the ones set globally through {@link FontUtils} are
+	 * used.
+	 * </p>
+	 *
+	 * @return default fonts, or an empty map to use the standard fonts
+	 */
+	@SuppressWarnings("deprecation")
+	public Map<String, PDFont> getDefaultFonts() {
+		final Map<String, PDFont> fonts = defaultFonts;
+		return fonts.isEmpty() ? FontUtils.getDefaultfonts() : fonts;
+	}
+
+	/**
+	 * <p>
+	 * Saves the document on the given executor, once all its tables are
+	 * drawn, e.g. when the futures of {@link Table#drawAsync(Executor)} are
+	 * done.
+	 * </p>
+	 * <p>
+	 * Until the returned future is done, the save owns the document, which
+	 * must not be changed or closed by any other thread. The output stream is
+	 * closed when the document is written, while the document stays open and
+	 * has to be closed by the caller afterwards.
+	 * </p>
+	 *
+	 * @param output
+	 *            {@link OutputStream} to write the document to
+	 * @param executor
+	 *            {@link Executor} to save the document on
+	 * @return future which is done when the document is saved, failing with
+	 *         the {@link IOException} of {@link PDDocument#save(OutputStream)}
+	 */
+	public ListenableFuture<Void> saveAsync(final OutputStream output, final Executor executor) {
+		final ListenableFutureTask<Void> task = ListenableFutureTask.create(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				document.save(output);
+				return null;
+			}
+		});
+		executor.execute(task);
+		return task;
+	}
+}
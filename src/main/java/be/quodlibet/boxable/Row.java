@@ -21,6 +21,7 @@ public class Row<T extends PDPage> {
 	List<Cell<T>> cells;
 	private boolean headerRow = false;
 	float height;
+	private boolean heightMeasured = false;
 	private float lineSpacing = 1;
 	
 	Row(Table<T> table, List<Cell<T>> cells, float height) {
@@ -54,6 +55,7 @@ public class Row<T extends PDPage> {
 		setBorders(cell, cells.isEmpty());
 		cell.setLineSpacing(lineSpacing);
 		cells.add(cell);
+		heightMeasured = false;
 		return cell;
 	}
 
@@ -72,6 +74,7 @@ public class Row<T extends PDPage> {
 		ImageCell<T> cell = new ImageCell<>(this, width, img, true);
 		setBorders(cell, cells.isEmpty());
 		cells.add(cell);
+		heightMeasured = false;
 		return cell;
 	}
 
@@ -79,6 +82,7 @@ public class Row<T extends PDPage> {
 		Cell<T> cell = new ImageCell<T>(this, width, img, true, align, valign);
 		setBorders(cell, cells.isEmpty());
 		cells.add(cell);
+		heightMeasured = false;
 		return cell;
 	}
 
@@ -103,6 +107,7 @@ public class Row<T extends PDPage> {
 		TableCell<T> cell = new TableCell<T>(this, width, tableData, true, doc, page, yStart, pageTopMargin, pageBottomMargin);
 		setBorders(cell, cells.isEmpty());
 		cells.add(cell);
+		heightMeasured = false;
 		return cell;
 	}
 
@@ -127,6 +132,7 @@ public class Row<T extends PDPage> {
 		setBorders(cell, cells.isEmpty());
 		cell.setLineSpacing(lineSpacing);
 		cells.add(cell);
+		heightMeasured = false;
 		return cell;
 	}
 
@@ -143,6 +149,26 @@ public class Row<T extends PDPage> {
 		Cell<T> cell = new Cell<T>(this, headerCellWidth, value, false);
 		setBorders(cell, cells.isEmpty());
 		cells.add(cell);
+		heightMeasured = false;
+		return cell;
+	}
+
+	/**
+	 * <p>
+	 * Creates a cell with the width and style of the given cell, see
+	 * {@link TableTemplate}.
+	 * </p>
+	 *
+	 * @param prototype
+	 *            Cell to copy the width and style from
+	 * @param value
+	 *            Cell's value or {@code null} to keep the one of the prototype
+	 * @return New {@link Cell}
+	 */
+	Cell<T> createCell(Cell<T> prototype, String value) {
+		Cell<T> cell = new Cell<T>(this, prototype, value);
+		cells.add(cell);
+		heightMeasured = false;
 		return cell;
 	}
 
@@ -163,38 +189,23 @@ public class Row<T extends PDPage> {
 
 	/**
 	 * <p>
-	 * remove top borders of cells to avoid double borders from cells in
-	 * previous row
-	 * </p>
-	 */
-	void removeTopBorders() {
-		for (final Cell<T> cell : cells) {
-			cell.setTopBorderStyle(null);
-		}
-	}
-	
-	/**
-	 * <p>
-	 * Remove all borders of cells.
+	 * Gets maximal height of the cells in current row therefore row's height.
 	 * </p>
-	 */
-	void removeAllBorders() {
-		for (final Cell<T> cell : cells) {
-			cell.setBorderStyle(null);;
-		}
-	}
-	
-	/**
 	 * <p>
-	 * Gets maximal height of the cells in current row therefore row's height.
+	 * The cells are measured once and the result is kept until a cell of the
+	 * row changes its content or style, so the height can be asked for any
+	 * number of times while the table is drawn.
 	 * </p>
 	 * 
 	 * @return Row's height
 	 */
 	public float getHeight() {
+		if (heightMeasured) {
+			return height;
+		}
 		float maxheight = 0.0f;
 		for (Cell<T> cell : this.cells) {
-			float cellHeight = cell.getCellHeight();
+			float cellHeight = cell.measureHeight();
 
 			if (cellHeight > maxheight) {
 				maxheight = cellHeight;
@@ -204,15 +215,50 @@ public class Row<T extends PDPage> {
 		if (maxheight > height) {
 			this.height = maxheight;
 		}
+		heightMeasured = true;
 		return height;
 	}
 
+	/**
+	 * <p>
+	 * Discards the measured row height, so that the cells are measured again
+	 * by the next call of {@link #getHeight()}. Called by the cells whenever
+	 * their content or style changes.
+	 * </p>
+	 */
+	void invalidateHeight() {
+		heightMeasured = false;
+	}
+
+	/**
+	 * <p>
+	 * Lays out the text of all cells and measures the row, so that drawing
+	 * the row afterwards only emits its content. Only the cells of this row
+	 * are touched, so different rows can be laid out on different threads.
+	 * </p>
+	 */
+	void layout() {
+		// rotated text is laid out within the row height
+		for (Cell<T> cell : cells) {
+			if (!cell.isTextRotated() && !(cell instanceof ImageCell) && !(cell instanceof TableCell)) {
+				cell.getParagraph().getLineCount();
+			}
+		}
+		getHeight();
+		for (Cell<T> cell : cells) {
+			if (cell.isTextRotated() && !(cell instanceof ImageCell) && !(cell instanceof TableCell)) {
+				cell.getParagraph().getLineCount();
+			}
+		}
+	}
+
 	public float getLineHeight() throws IOException {
 		return height;
 	}
 
 	public void setHeight(float height) {
 		this.height = height;
+		heightMeasured = false;
 	}
 
 	public List<Cell<T>> getCells() {
@@ -225,16 +271,33 @@ public class Row<T extends PDPage> {
 
 	public void setCells(List<Cell<T>> cells) {
 		this.cells = cells;
+		heightMeasured = false;
 	}
 
 	public float getWidth() {
 		return table.getWidth();
 	}
 
+	RenderContext getRenderContext() {
+		return table.getRenderContext();
+	}
+
 	public PDOutlineItem getBookmark() {
 		return bookmark;
 	}
 
+	/**
+	 * <p>
+	 * Sets the bookmark of the row. The item itself is left as it is: each
+	 * drawing of the row adds a new item with the title, the color and the
+	 * style of this one and a destination pointing at the row to
+	 * {@link Table#getBookmarks()}. Only the items of that list have to be
+	 * added to the outline of the document.
+	 * </p>
+	 *
+	 * @param bookmark
+	 *            {@link PDOutlineItem} whose title and appearance are used
+	 */
 	public void setBookmark(PDOutlineItem bookmark) {
 		this.bookmark = bookmark;
 	}
@@ -0,0 +1,64 @@
+package be.quodlibet.boxable;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * <p>
+ * Lays out a range of rows on a {@link java.util.concurrent.ForkJoinPool},
+ * splitting it until only a few rows are left for each task.
+ * </p>
+ *
+ * @see Table#setLayoutPool(java.util.concurrent.ForkJoinPool)
+ */
+final class RowLayoutTask<T extends PDPage> extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int THRESHOLD = 4;
+
+	private final List<Row<T>> rows;
+
+	private final int start;
+
+	private final int end;
+
+	private final boolean measureOnly;
+
+	/**
+	 * @param rows
+	 *            All rows of the table
+	 * @param start
+	 *            Index of the first row to lay out
+	 * @param end
+	 *            Index after the last row to lay out
+	 * @param measureOnly
+	 *            if {@code true} the rows are only measured, as needed for
+	 *            planning the page breaks
+	 */
+	RowLayoutTask(final List<Row<T>> rows, final int start, final int end, final boolean measureOnly) {
+		this.rows = rows;
+		this.start = start;
+		this.end = end;
+		this.measureOnly = measureOnly;
+	}
+
+	@Override
+	protected void compute() {
+		if (end - start <= THRESHOLD) {
+			for (int i = start; i < end; i++) {
+				if (measureOnly) {
+					rows.get(i).getHeight();
+				} else {
+					rows.get(i).layout();
+				}
+			}
+		} else {
+			final int middle = (start + end) >>> 1;
+			invokeAll(new RowLayoutTask<>(rows, start, middle, measureOnly),
+					new RowLayoutTask<>(rows, middle, end, measureOnly));
+		}
+	}
+}
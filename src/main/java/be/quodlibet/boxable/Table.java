@@ -7,36 +7,64 @@ package be.quodlibet.boxable;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.awt.Color;
-import java.awt.geom.AffineTransform;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageXYZDestination;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 import org.apache.pdfbox.util.Matrix;
 
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
 import be.quodlibet.boxable.line.LineStyle;
 import be.quodlibet.boxable.page.PageProvider;
 import be.quodlibet.boxable.text.Token;
 import be.quodlibet.boxable.text.WrappingFunction;
 import be.quodlibet.boxable.utils.FontUtils;
 import be.quodlibet.boxable.utils.PDStreamUtils;
+import be.quodlibet.boxable.utils.TrackingContentStream;
 
 public abstract class Table<T extends PDPage> {
 
+	// entries of a row's bookmark copied to the bookmarks of its drawings
+	private static final COSName[] BOOKMARK_KEYS = { COSName.TITLE, COSName.C, COSName.F };
+
 	public final PDDocument document;
 	private float margin;
 
 	private T currentPage;
-	private PDPageContentStream tableContentStream;
+	private TrackingContentStream tableContentStream;
+	// rows drawn when the page is done, so its backgrounds are filled first
+	private final List<DrawnRow<T>> pageRows = new ArrayList<>();
 	private List<PDOutlineItem> bookmarks;
 	private List<Row<T>> header = new ArrayList<>();
 	private List<Row<T>> rows = new ArrayList<>();
@@ -53,9 +81,21 @@ public abstract class Table<T extends PDPage> {
 	private boolean tableStartedAtNewPage = false;
 	private boolean removeTopBorders = false;
 	private boolean removeAllBorders = false;
+	private TableState startState;
+	private boolean topBorderContinued = false;
+	private boolean continuedOnNewPage = false;
 
 	private PageProvider<T> pageProvider;
 	private int mindatarows = 1;
+
+	private ForkJoinPool layoutPool;
+	private int layoutAheadRows = 0;
+	private ExecutorService renderPool;
+	private List<PageContent> pageContents;
+	private boolean headerAsForm;
+	private PDFormXObject headerForm;
+	private boolean streamedRowsDrawn;
+	private RenderContext renderContext;
 	
 	// page margins
 	private final float pageTopMargin;
@@ -115,6 +155,7 @@ public abstract class Table<T extends PDPage> {
 		this.pageBottomMargin = pageBottomMargin;
 		this.currentPage = currentPage;
 		this.pageProvider = pageProvider;
+		this.renderContext = new RenderContext(document);
 		loadFonts();
 	}
 
@@ -131,12 +172,22 @@ public abstract class Table<T extends PDPage> {
 		this.width = width;
 		this.pageProvider = pageProvider;
 		this.pageBottomMargin = pageBottomMargin;
+		this.renderContext = new RenderContext(document);
 
 		// Fonts needs to be loaded before page creation
 		loadFonts();
 		this.currentPage = pageProvider.nextPage();
 	}
 
+	/**
+	 * <p>
+	 * Loads the fonts of the table, e.g. by setting the default fonts of the
+	 * document in {@link #getRenderContext()}.
+	 * </p>
+	 *
+	 * @throws IOException
+	 *             If loading the fonts fails
+	 */
 	protected abstract void loadFonts() throws IOException;
 
 	protected PDType0Font loadFont(String fontPath) throws IOException {
@@ -147,6 +198,31 @@ public abstract class Table<T extends PDPage> {
 		return document;
 	}
 
+	/**
+	 * @return {@link RenderContext} of the document the table is drawn into
+	 */
+	public RenderContext getRenderContext() {
+		return renderContext;
+	}
+
+	/**
+	 * <p>
+	 * Replaces the context of the table, e.g. to share the default fonts of
+	 * one context between all tables of the document. Cells take their
+	 * default fonts when they are created, so the context must be set before
+	 * the rows of the table are created.
+	 * </p>
+	 *
+	 * @param renderContext
+	 *            {@link RenderContext} of the document the table is drawn into
+	 */
+	public void setRenderContext(final RenderContext renderContext) {
+		if (renderContext.getDocument() != document) {
+			throw new IllegalArgumentException("Render context belongs to another document");
+		}
+		this.renderContext = renderContext;
+	}
+
 	public void drawTitle(String title, PDFont font, int fontSize, float tableWidth, float height, String alignment,
 			float freeSpaceForPageBreak, boolean drawHeaderMargin) throws IOException {
 		drawTitle(title, font, fontSize, tableWidth, height, alignment, freeSpaceForPageBreak, null, drawHeaderMargin);
@@ -159,7 +235,7 @@ public abstract class Table<T extends PDPage> {
 		ensureStreamIsOpen();
 
 		if (isEndOfPage(freeSpaceForPageBreak)) {
-			this.tableContentStream.close();
+			closeTableContentStream();
 			pageBreak();
 			tableStartedAtNewPage = true;
 		}
@@ -170,7 +246,7 @@ public abstract class Table<T extends PDPage> {
 		} else {
 			PDPageContentStream articleTitle = createPdPageContentStream();
 			Paragraph paragraph = new Paragraph(title, font, fontSize, tableWidth, HorizontalAlignment.get(alignment),
-					wrappingFunction);
+					Color.BLACK, null, wrappingFunction, 1, getRenderContext());
 			paragraph.setDrawDebug(drawDebug);
 			yStart = paragraph.write(articleTitle, margin, yStart);
 			if (paragraph.getHeight() < height) {
@@ -208,10 +284,73 @@ public abstract class Table<T extends PDPage> {
 		return row;
 	}
 
+	/**
+	 * <p>
+	 * Lays out the text of all rows, which {@link #draw()} otherwise does
+	 * while drawing them. Drawing only reads laid out rows, so they can be
+	 * shared with other tables, see {@link #shareRows(Table)}.
+	 * </p>
+	 */
+	public void layout() {
+		for (Row<T> row : rows) {
+			row.layout();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Draws the rows and header rows of the given table instead of creating
+	 * rows for this one, so a table prepared once, e.g. a legend repeated in
+	 * many reports, is drawn into other documents without being built again.
+	 * Drawing doesn't change the rows: the pages, the Y position and the
+	 * bookmarks are kept by each table drawing them, also when they are drawn
+	 * on several threads at the same time.
+	 * </p>
+	 * <p>
+	 * The model has to be laid out by {@link #layout()} before it is shared
+	 * and must not be changed afterwards. Its cells keep their widths and
+	 * fonts, so they should use fonts which aren't loaded into the document
+	 * of the model, like the standard 14 fonts. No rows can be added to this
+	 * table anymore.
+	 * </p>
+	 *
+	 * @param model
+	 *            {@link Table} whose rows are drawn
+	 * @throws IllegalArgumentException
+	 *             if the model has a {@link TableCell}, which draws into the
+	 *             document of the model
+	 */
+	public void shareRows(Table<T> model) {
+		if (hasTableCells(model.rows)) {
+			throw new IllegalArgumentException("Rows with table cells can't be shared");
+		}
+		this.rows = Collections.unmodifiableList(model.rows);
+		this.header = Collections.unmodifiableList(model.header);
+	}
+
+	/**
+	 * <p>
+	 * Adds the rows and header rows of another table in front of the rows
+	 * created afterwards. The rows are drawn without being changed, like the
+	 * ones of {@link #shareRows(Table)}.
+	 * </p>
+	 *
+	 * @param model
+	 *            {@link Table} whose rows are added
+	 */
+	void addSharedRows(Table<T> model) {
+		rows.addAll(model.rows);
+		header.addAll(model.header);
+	}
+
 	/**
 	 * <p>
 	 * Draws table
 	 * </p>
+	 * <p>
+	 * The page breaks are planned by {@link #getPaginationPlan()} before the
+	 * first row is drawn.
+	 * </p>
 	 * 
 	 * @return Y position of the table
 	 * @throws IOException
@@ -219,28 +358,300 @@ public abstract class Table<T extends PDPage> {
 	public float draw() throws IOException {
 		ensureStreamIsOpen();
 
-		for (Row<T> row : rows) {
-			if (header.contains(row)) {
-				// check if header row height and first data row height can fit
-				// the page
-				// if not draw them on another side
-				if (isEndOfPage(getMinimumHeight())) {
+		if (layoutPool != null) {
+			// heights are needed for the pagination plan, the text layout only
+			// when a row is drawn
+			layoutPool.invoke(new RowLayoutTask<>(rows, 0, rows.size(), layoutAheadRows > 0));
+		}
+		final PaginationPlan plan = getPaginationPlan();
+		if (renderPool != null && !hasTableCells(rows)) {
+			pageContents = new ArrayList<>();
+			pageContents.add(new PageContent(currentPage));
+		}
+		for (int i = 0; i < rows.size(); i++) {
+			if (layoutPool != null && layoutAheadRows > 0 && i % layoutAheadRows == 0) {
+				layoutPool.invoke(new RowLayoutTask<>(rows, i, Math.min(i + layoutAheadRows, rows.size()), false));
+			}
+			if (isHeaderShown(rows.get(i))) {
+				continue;
+			}
+			// check if header row height and first data row height can fit
+			// the page
+			// if not draw them on another side
+			if (plan.isHeaderPageBreak(i)) {
+				setTableIsBroken(true);
+				pageBreak();
+				tableStartedAtNewPage = true;
+			}
+			drawRow(rows.get(i), plan.isRowPageBreak(i));
+		}
+
+		if (pageContents != null) {
+			renderPageContents();
+		}
+		endTable();
+		return yStart;
+	}
+
+	/**
+	 * <p>
+	 * Draws the table on the given executor, so the caller can go on e.g.
+	 * with fetching the data of the next table meanwhile.
+	 * </p>
+	 * <p>
+	 * Until the returned future is done, the render owns the table with its
+	 * rows and cells, the {@link PDDocument} and the {@link PageProvider}:
+	 * they must not be changed, drawn into, saved or closed by any other
+	 * thread. Tables of the same document are therefore drawn one after
+	 * another, e.g. by chaining them with
+	 * {@link com.google.common.util.concurrent.Futures}, and the document is
+	 * saved once the last one is done, see
+	 * {@link RenderContext#saveAsync(java.io.OutputStream, Executor)} of
+	 * {@link #getRenderContext()}. The
+	 * pools set with {@link #setLayoutPool(ForkJoinPool)} and
+	 * {@link #setRenderPool(ExecutorService)} are used as with
+	 * {@link #draw()}, but must not be the executor of this method if it is
+	 * bounded.
+	 * </p>
+	 *
+	 * @param executor
+	 *            {@link Executor} to draw the table on
+	 * @return future of the Y position of the table, failing with the
+	 *         {@link IOException} of {@link #draw()}
+	 */
+	public ListenableFuture<Float> drawAsync(Executor executor) {
+		final ListenableFutureTask<Float> task = ListenableFutureTask.create(new Callable<Float>() {
+			@Override
+			public Float call() throws IOException {
+				return draw();
+			}
+		});
+		executor.execute(task);
+		return task;
+	}
+
+	/**
+	 * <p>
+	 * Creates a row which isn't added to {@link #getRows()}, to be drawn with
+	 * {@link #drawStreamedRow(Row)} as soon as its cells are created.
+	 * </p>
+	 * <p>
+	 * Streaming the rows this way keeps only the rows of the current page in
+	 * memory, however many rows the table has. The header rows are created with
+	 * {@link #createRow(float)} as usual and repeated after each page break.
+	 * To keep the memory use flat, the document should buffer its content in
+	 * a temporary file, see {@code MemoryUsageSetting#setupTempFileOnly()}.
+	 * </p>
+	 *
+	 * @param height
+	 *            Minimal height of the row
+	 * @return new {@link Row}
+	 */
+	public Row<T> createStreamedRow(float height) {
+		Row<T> row = new Row<T>(this, height);
+		row.setLineSpacing(lineSpacing);
+		return row;
+	}
+
+	/**
+	 * <p>
+	 * Draws a row created by {@link #createStreamedRow(float)}. The rows of
+	 * {@link #getRows()} are drawn before the first such row. Page breaks are
+	 * decided row by row, the same way {@link #draw()} plans them, and the row
+	 * isn't referenced by the table anymore once its page is done, except for
+	 * its bookmark.
+	 * </p>
+	 *
+	 * @param row
+	 *            {@link Row} to draw, which must not be changed afterwards
+	 * @throws IOException
+	 *             If writing to the content stream fails
+	 * @see TablePipeline
+	 */
+	public void drawStreamedRow(Row<T> row) throws IOException {
+		if (!streamedRowsDrawn) {
+			ensureStreamIsOpen();
+			// header rows need to fit on the page together with this row
+			float minimumHeight = row.getHeight();
+			for (Row<T> headerRow : header) {
+				minimumHeight += headerRow.getHeight();
+			}
+			for (Row<T> tableRow : rows) {
+				if (isHeaderShown(tableRow)) {
+					continue;
+				}
+				if (header.contains(tableRow) && isEndOfPage(yStart, minimumHeight)) {
+					setTableIsBroken(true);
 					pageBreak();
 					tableStartedAtNewPage = true;
 				}
+				drawRow(tableRow, isEndOfPage(yStart, tableRow.getHeight()));
 			}
-			drawRow(row);
 		}
+		drawRow(row, isEndOfPage(yStart, row.getHeight()));
+		streamedRowsDrawn = true;
+	}
 
+	/**
+	 * <p>
+	 * Finishes the table after the last row drawn with
+	 * {@link #drawStreamedRow(Row)}, instead of calling {@link #draw()}.
+	 * </p>
+	 *
+	 * @return Y position of the table
+	 * @throws IOException
+	 *             If writing to the content stream fails
+	 */
+	public float endStreamedRows() throws IOException {
+		if (!streamedRowsDrawn) {
+			return draw();
+		}
 		endTable();
 		return yStart;
 	}
 
-	private void drawRow(Row<T> row) throws IOException {
+	static <T extends PDPage> boolean hasTableCells(List<Row<T>> rows) {
+		for (Row<T> row : rows) {
+			for (Cell<T> cell : row.getCells()) {
+				// table cells draw into the page themselves
+				if (cell instanceof TableCell) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <p>
+	 * Renders the collected pages on the render pool and appends their
+	 * content to the pages in order.
+	 * </p>
+	 */
+	private void renderPageContents() throws IOException {
+		final List<PageContent> contents = pageContents;
+		pageContents = null;
+
+		final List<Future<byte[]>> operators;
+		try {
+			operators = renderPool.invokeAll(contents);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while rendering the table");
+		}
+		for (int i = 0; i < contents.size(); i++) {
+			final PageContent content = contents.get(i);
+			if (i > 0) {
+				this.tableContentStream = new TrackingContentStream(
+						new PDPageContentStream(getDocument(), content.page, AppendMode.APPEND, true));
+			}
+			try {
+				tableContentStream.appendRawCommands(operators.get(i).get());
+			} catch (InterruptedException e) {
+				// all tasks are done already
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+				throw Throwables.propagate(e.getCause());
+			}
+			content.mergeResources();
+			if (i < contents.size() - 1) {
+				closeTableContentStream();
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Computes the page breaks of the table from the row heights, without
+	 * drawing anything. The plan starts at the current Y position and is the
+	 * one {@link #draw()} follows when it is called next.
+	 * </p>
+	 * <p>
+	 * Header rows repeated on a new page are expected to fit on it.
+	 * </p>
+	 * 
+	 * @return {@link PaginationPlan} of the table
+	 */
+	public PaginationPlan getPaginationPlan() {
+		final PaginationPlan plan = new PaginationPlan(rows.size(), startState == null ? new TableState(yStart,
+				false, false) : new TableState(yStart, startState.isHeaderShown(), startState.isTopBorderRemoved()));
+		final float yStartNewPage = this.yStartNewPage - pageTopMargin;
+		float y = yStart;
+		for (int i = 0; i < rows.size(); i++) {
+			final Row<T> row = rows.get(i);
+			if (isHeaderShown(row)) {
+				continue;
+			}
+			if (header.contains(row) && isEndOfPage(y, getMinimumHeight())) {
+				y = yStartNewPage;
+				plan.addHeaderPageBreak(i, y);
+			}
+			if (isEndOfPage(y, row.getHeight())) {
+				y = yStartNewPage;
+				plan.addRowPageBreak(i, y, !header.isEmpty());
+				for (Row<T> headerRow : header) {
+					y = advance(plan, y, headerRow);
+				}
+			}
+			y = advance(plan, y, row);
+		}
+		plan.end(rows.size());
+		return plan;
+	}
+
+	private boolean isHeaderShown(Row<T> row) {
+		// header rows already shown on the page a continued table starts on
+		return startState != null && startState.isHeaderShown() && header.contains(row);
+	}
+
+	/**
+	 * The first row draws the top border of the table, unless the table
+	 * continues one drawn before on the same page.
+	 */
+	private boolean isFirstRow(Row<T> row) {
+		// before the first streamed row is drawn, it's the first one
+		final boolean first = rows.isEmpty() ? !streamedRowsDrawn : row == rows.get(0);
+		return first && !topBorderContinued;
+	}
+
+	private float advance(final PaginationPlan plan, final float y, final Row<T> row) {
+		// only drawing the content moves the Y position
+		if (!drawContent) {
+			return y;
+		}
+		final float height = row.getHeight();
+		plan.advance(height);
+		return y - height;
+	}
+
+	private void drawRow(Row<T> row, boolean pageBreak) throws IOException {
+		final DrawnRow<T> drawnRow = placeRow(row, pageBreak);
+		if (pageContents != null) {
+			// drawn later on one of the render pool's threads
+			row.layout();
+			pageContents.get(pageContents.size() - 1).add(drawnRow);
+		} else {
+			pageRows.add(drawnRow);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Decides where and how the row is drawn, breaking the page before it if
+	 * needed, and moves the Y position below it.
+	 * </p>
+	 */
+	private DrawnRow<T> placeRow(Row<T> row, boolean pageBreak) throws IOException {
+		// the row itself isn't changed, the borders it leaves out and the
+		// hidden cells it shows are only decided for this position
+		boolean topBordersRemoved = false;
+		boolean hiddenCellsShown = false;
+
 		// if it is not header row or first row in the table then remove row's top border
-		if (row != header && row != rows.get(0)) {
-			if(!isEndOfPage(row)){
-				row.removeTopBorders();
+		if (row != header && !isFirstRow(row)) {
+			if (!pageBreak) {
+				topBordersRemoved = true;
 			}
 		}
 		
@@ -249,19 +660,21 @@ public abstract class Table<T extends PDPage> {
 			PDPageXYZDestination bookmarkDestination = new PDPageXYZDestination();
 			bookmarkDestination.setPage(currentPage);
 			bookmarkDestination.setTop((int) yStart);
-			row.getBookmark().setDestination(bookmarkDestination);
-			this.addBookmark(row.getBookmark());
+			// each drawing gets its own bookmark, with the title and the
+			// appearance of the row's one but without its place in an outline
+			PDOutlineItem bookmark = new PDOutlineItem();
+			for (COSName key : BOOKMARK_KEYS) {
+				bookmark.getCOSObject().setItem(key, row.getBookmark().getCOSObject().getItem(key));
+			}
+			bookmark.setDestination(bookmarkDestination);
+			this.addBookmark(bookmark);
 		}
 
 		// we want to remove the borders as often as possible
 		removeTopBorders = true;
-		
-		// check also if we want all borders removed
-		if(allBordersRemoved()) {
-			row.removeAllBorders();
-		}
 
-		if (isEndOfPage(row)) {
+		if (pageBreak) {
+			setTableIsBroken(true);
 
 			// Draw line at bottom of table
 			endTable();
@@ -271,8 +684,12 @@ public abstract class Table<T extends PDPage> {
 
 			// redraw all headers on each currentPage
 			if (!header.isEmpty()) {
-				for (Row<T> headerRow : header) {
-					drawRow(headerRow);
+				if (headerAsForm && !hasTableCells(header)) {
+					drawHeaderForm();
+				} else {
+					for (Row<T> headerRow : header) {
+						drawRow(headerRow, false);
+					}
 				}
 				// after you draw all header rows on next page please keep removing top borders to avoid double border drawing
 				removeTopBorders = true;
@@ -281,36 +698,86 @@ public abstract class Table<T extends PDPage> {
 				removeTopBorders = false;
 			}
 			
-			for(Cell cell : row.getCells()) {
-				cell.setHiddenCell(false);
-			}
-			
+			hiddenCellsShown = true;
+		} else if (continuedOnNewPage && !header.contains(row)) {
+			// the table continues with this row on top of a new page
+			hiddenCellsShown = true;
+		}
+		if (!header.contains(row)) {
+			continuedOnNewPage = false;
 		}
-		// if it is first row in the table, we have to draw the top border
-		if (row == rows.get(0)) {
+		// if it is header row or first row in the table, we have to draw the top border
+		if (isFirstRow(row)) {
 			removeTopBorders = false;
 		}
 
 		if (removeTopBorders) {
-			row.removeTopBorders();
+			topBordersRemoved = true;
 		}
 
-		// if it is header row or first row in the table, we have to draw the top border
-		if (row == rows.get(0)) {
-			removeTopBorders = false;
-		}
+		// only the first row drawn joins the table drawn before on this page
+		final boolean joinedAbove = topBorderContinued;
+		topBorderContinued = false;
 
-		if (removeTopBorders) {
-			row.removeTopBorders();
+		final DrawnRow<T> drawnRow = new DrawnRow<>(row, yStart, topBordersRemoved, hiddenCellsShown, joinedAbove);
+
+		if (drawContent) {
+			// Set Y position for next row
+			yStart = yStart - row.getHeight();
 		}
+		return drawnRow;
+	}
 
-		if (drawLines) {
-			drawVerticalLines(row);
+	/**
+	 * <p>
+	 * Stamps the header rows on top of the page after a page break, rendering
+	 * them into a {@link PDFormXObject} the first time. The header rows are
+	 * placed the same way on each new page, so the form fits all of them.
+	 * </p>
+	 */
+	private void drawHeaderForm() throws IOException {
+		final List<DrawnRow<T>> drawnHeader = new ArrayList<>();
+		for (Row<T> headerRow : header) {
+			drawnHeader.add(placeRow(headerRow, false));
+		}
+		if (headerForm == null) {
+			headerForm = createHeaderForm(drawnHeader);
 		}
+		if (pageContents != null) {
+			final PageContent content = pageContents.get(pageContents.size() - 1);
+			content.headerForm = headerForm;
+			for (DrawnRow<T> drawnRow : drawnHeader) {
+				content.add(drawnRow.stamped());
+			}
+		} else {
+			// nothing is drawn on the new page yet
+			tableContentStream.drawForm(headerForm);
+			for (DrawnRow<T> drawnRow : drawnHeader) {
+				pageRows.add(drawnRow.stamped());
+			}
+		}
+	}
 
-		if (drawContent) {
-			drawCellContent(row);
+	private PDFormXObject createHeaderForm(List<DrawnRow<T>> drawnHeader) throws IOException {
+		final PDPage scratchPage = new PDPage();
+		scratchPage.setResources(new PDResources());
+		final TrackingContentStream contentStream = new TrackingContentStream(
+				new PDPageContentStream(getDocument(), scratchPage, AppendMode.OVERWRITE, false));
+		// the borders are stroked on each page together with the rows below,
+		// so the columns run through without a seam
+		drawRows(contentStream, drawnHeader, false);
+		contentStream.close();
+
+		final PDFormXObject form = new PDFormXObject(getDocument());
+		try (InputStream in = scratchPage.getContents();
+				OutputStream out = form.getContentStream().createOutputStream(COSName.FLATE_DECODE)) {
+			ByteStreams.copy(in, out);
 		}
+		form.setResources(scratchPage.getResources());
+		final PDRectangle mediaBox = currentPage.getMediaBox();
+		form.setBBox(new PDRectangle(mediaBox.getLowerLeftX(), mediaBox.getLowerLeftY(), mediaBox.getWidth(),
+				mediaBox.getHeight()));
+		return form;
 	}
 
 	/**
@@ -344,10 +811,155 @@ public abstract class Table<T extends PDPage> {
 	}
 
 	private PDPageContentStream createPdPageContentStream() throws IOException {
-		return new PDPageContentStream(getDocument(), getCurrentPage(), true, true);
+		return new PDPageContentStream(getDocument(), getCurrentPage(), AppendMode.APPEND, true);
 	}
 
-	private void drawCellContent(Row<T> row) throws IOException {
+	private void setFont(TrackingContentStream contentStream, PDFont font, float fontSize) throws IOException {
+		// fonts to be subset are registered with the document
+		synchronized (document) {
+			contentStream.setFont(font, fontSize);
+		}
+	}
+
+	private static void showText(TrackingContentStream contentStream, PDFont font, String text) throws IOException {
+		// fonts cache their encoding in unsynchronized maps
+		synchronized (font) {
+			contentStream.showText(text);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Rows drawn on a single page when rendering in parallel. Rendering
+	 * writes the operators into a scratch page with a copy of the page's
+	 * resources, so the operators and resource names are the same as if the
+	 * rows were drawn directly into the page.
+	 * </p>
+	 */
+	private final class PageContent implements Callable<byte[]> {
+
+		private final T page;
+
+		private final COSDictionary resources = new COSDictionary();
+
+		private final List<DrawnRow<T>> rows = new ArrayList<>();
+
+		// header rows stamped on top of the page
+		private PDFormXObject headerForm;
+
+		private PageContent(T page) {
+			this.page = page;
+			if (page.getResources() != null) {
+				final COSDictionary pageResources = page.getResources().getCOSObject();
+				for (COSName kind : pageResources.keySet()) {
+					final COSBase value = pageResources.getDictionaryObject(kind);
+					resources.setItem(kind,
+							value instanceof COSDictionary ? new COSDictionary((COSDictionary) value) : value);
+				}
+			}
+		}
+
+		private void add(DrawnRow<T> row) {
+			rows.add(row);
+		}
+
+		@Override
+		public byte[] call() throws IOException {
+			final PDPage scratchPage = new PDPage();
+			scratchPage.setResources(new PDResources(resources));
+			final TrackingContentStream contentStream;
+			synchronized (document) {
+				contentStream = new TrackingContentStream(
+						new PDPageContentStream(getDocument(), scratchPage, AppendMode.OVERWRITE, false));
+			}
+			if (headerForm != null) {
+				contentStream.drawForm(headerForm);
+			}
+			drawRows(contentStream, rows);
+			contentStream.close();
+			try (COSStream operators = (COSStream) scratchPage.getCOSObject().getDictionaryObject(COSName.CONTENTS);
+					InputStream in = operators.createInputStream()) {
+				return ByteStreams.toByteArray(in);
+			}
+		}
+
+		/**
+		 * <p>
+		 * Adds the resources used by the rendered rows to the page.
+		 * </p>
+		 */
+		private void mergeResources() {
+			final COSDictionary pageResources = page.getResources().getCOSObject();
+			for (COSName kind : resources.keySet()) {
+				final COSBase value = resources.getDictionaryObject(kind);
+				if (value instanceof COSDictionary) {
+					COSDictionary target = (COSDictionary) pageResources.getDictionaryObject(kind);
+					if (target == null) {
+						target = new COSDictionary();
+						pageResources.setItem(kind, target);
+					}
+					for (Map.Entry<COSName, COSBase> entry : ((COSDictionary) value).entrySet()) {
+						if (!target.containsKey(entry.getKey())) {
+							target.setItem(entry.getKey(), entry.getValue());
+						}
+					}
+				} else if (!pageResources.containsKey(kind)) {
+					pageResources.setItem(kind, value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * A row at the position where it is drawn, with the borders and hidden
+	 * cells it shows there. Drawing only reads the row, so the same row can
+	 * be drawn any number of times.
+	 * </p>
+	 */
+	private static final class DrawnRow<T extends PDPage> {
+
+		private final Row<T> row;
+
+		private final float yStart;
+
+		private final boolean topBordersRemoved;
+
+		private final boolean hiddenCellsShown;
+
+		// first row of a table continuing one drawn before on the same page
+		private final boolean joinedAbove;
+
+		// backgrounds and content are drawn by the header form
+		private final boolean stamped;
+
+		private DrawnRow(Row<T> row, float yStart, boolean topBordersRemoved, boolean hiddenCellsShown,
+				boolean joinedAbove) {
+			this(row, yStart, topBordersRemoved, hiddenCellsShown, joinedAbove, false);
+		}
+
+		private DrawnRow(Row<T> row, float yStart, boolean topBordersRemoved, boolean hiddenCellsShown,
+				boolean joinedAbove, boolean stamped) {
+			this.row = row;
+			this.yStart = yStart;
+			this.topBordersRemoved = topBordersRemoved;
+			this.hiddenCellsShown = hiddenCellsShown;
+			this.joinedAbove = joinedAbove;
+			this.stamped = stamped;
+		}
+
+		/**
+		 * @return the row at the same position, with only its borders left
+		 *         to draw
+		 */
+		private DrawnRow<T> stamped() {
+			return new DrawnRow<>(row, yStart, topBordersRemoved, hiddenCellsShown, joinedAbove, true);
+		}
+	}
+
+	private void drawCellContent(TrackingContentStream contentStream, DrawnRow<T> drawnRow) throws IOException {
+		final Row<T> row = drawnRow.row;
+		final float yStart = drawnRow.yStart;
 
 		// position into first cell (horizontal)
 		float cursorX = margin;
@@ -356,97 +968,109 @@ public abstract class Table<T extends PDPage> {
 		for (Cell<T> cell : row.getCells()) {
 			// remember horizontal cursor position, so we can advance to the next cell easily later
 			float cellStartX = cursorX;
+			// borders and inner size of the cell as drawn
+			final LineStyle topBorder = getTopBorder(drawnRow, cell);
+			final LineStyle rightBorder = getRightBorder(cell);
+			final LineStyle bottomBorder = getBottomBorder(cell);
+			final LineStyle leftBorder = getLeftBorder(cell);
+			final float innerWidth = cell.getWidth() - cell.getLeftPadding() - cell.getRightPadding()
+					- widthOf(leftBorder) - widthOf(rightBorder);
+			final float innerHeight = cell.getHeight() - cell.getBottomPadding() - cell.getTopPadding()
+					- widthOf(topBorder) - widthOf(bottomBorder);
 			if (cell instanceof ImageCell) {
 				final ImageCell<T> imageCell = (ImageCell<T>) cell;
 
-				cursorY = yStart - cell.getTopPadding()
-						- (cell.getTopBorder() == null ? 0 : cell.getTopBorder().getWidth());
+				cursorY = yStart - cell.getTopPadding() - widthOf(topBorder);
 
 				// image cell vertical alignment
 				switch (cell.getValign()) {
 				case TOP:
 					break;
 				case MIDDLE:
-					cursorY -= cell.getVerticalFreeSpace() / 2;
+					cursorY -= cell.getVerticalFreeSpace(innerHeight) / 2;
 					break;
 				case BOTTOM:
-					cursorY -= cell.getVerticalFreeSpace();
+					cursorY -= cell.getVerticalFreeSpace(innerHeight);
 					break;
 				}
 
-				cursorX += cell.getLeftPadding() + (cell.getLeftBorder() == null ? 0 : cell.getLeftBorder().getWidth());
+				cursorX += cell.getLeftPadding() + widthOf(leftBorder);
 
 				// image cell horizontal alignment
 				switch (cell.getAlign()) {
 				case CENTER:
-					cursorX += cell.getHorizontalFreeSpace() / 2;
+					cursorX += cell.getHorizontalFreeSpace(innerWidth) / 2;
 					break;
 				case LEFT:
 					break;
 				case RIGHT:
-					cursorX += cell.getHorizontalFreeSpace();
+					cursorX += cell.getHorizontalFreeSpace(innerWidth);
 					break;
 				}
-				imageCell.getImage().draw(document, tableContentStream, cursorX, cursorY);
+				// images are added to the document
+				synchronized (document) {
+					imageCell.getImage().draw(document, contentStream.getStream(), cursorX, cursorY);
+				}
 
 			} else if (cell instanceof TableCell) {
 				final TableCell<T> tableCell = (TableCell<T>) cell;
 
-				cursorY = yStart - cell.getTopPadding()
-						- (cell.getTopBorder() != null ? cell.getTopBorder().getWidth() : 0);
+				cursorY = yStart - cell.getTopPadding() - widthOf(topBorder);
 
 				// table cell vertical alignment
 				switch (cell.getValign()) {
 				case TOP:
 					break;
 				case MIDDLE:
-					cursorY -= cell.getVerticalFreeSpace() / 2;
+					cursorY -= cell.getVerticalFreeSpace(innerHeight) / 2;
 					break;
 				case BOTTOM:
-					cursorY -= cell.getVerticalFreeSpace();
+					cursorY -= cell.getVerticalFreeSpace(innerHeight);
 					break;
 				}
 
-				cursorX += cell.getLeftPadding() + (cell.getLeftBorder() == null ? 0 : cell.getLeftBorder().getWidth());
+				cursorX += cell.getLeftPadding() + widthOf(leftBorder);
 				tableCell.setXPosition(cursorX);
 				tableCell.setYPosition(cursorY);
-				tableCell.draw(currentPage);
+				tableCell.draw(currentPage, topBorder == null);
 			} else {
 				// no text without font
 				if (cell.getFont() == null) {
 					throw new IllegalArgumentException("Font is null on Cell=" + cell.getText());
 				}
 
-				// font settings
-				this.tableContentStream.setFont(cell.getFont(), cell.getFontSize());
+				// rotated text is laid out within the inner height as drawn
+				final Paragraph paragraph = cell.getParagraph(innerHeight);
 
 				if (cell.isTextRotated()) {
+					final float verticalFreeSpace = innerHeight - paragraph.getMaxLineWidth();
+					final float horizontalFreeSpace = innerWidth - paragraph.getHeight();
+
 					// debugging mode - drawing (default!) padding of rotated cells
 					//left
-					//					PDStreamUtils.rect(tableContentStream, cursorX, yStart, 5, cell.getHeight(), Color.GREEN);
+					//					PDStreamUtils.rect(contentStream, cursorX, yStart, 5, cell.getHeight(), Color.GREEN);
 					//top
-					//					PDStreamUtils.rect(tableContentStream, cursorX, yStart, cell.getWidth(), 5 , Color.GREEN);
+					//					PDStreamUtils.rect(contentStream, cursorX, yStart, cell.getWidth(), 5 , Color.GREEN);
 					// bottom
-					//					PDStreamUtils.rect(tableContentStream, cursorX, yStart - cell.getHeight(), cell.getWidth(), -5 , Color.GREEN);
+					//					PDStreamUtils.rect(contentStream, cursorX, yStart - cell.getHeight(), cell.getWidth(), -5 , Color.GREEN);
 					//right 
-					//					PDStreamUtils.rect(tableContentStream, cursorX + cell.getWidth() - 5, yStart, 5, cell.getHeight(), Color.GREEN);
+					//					PDStreamUtils.rect(contentStream, cursorX + cell.getWidth() - 5, yStart, 5, cell.getHeight(), Color.GREEN);
 
-					cursorY = yStart - cell.getInnerHeight() - cell.getTopPadding()
-							- (cell.getTopBorder() != null ? cell.getTopBorder().getWidth() : 0);
+					cursorY = yStart - innerHeight - cell.getTopPadding() - widthOf(topBorder);
 
 					switch (cell.getAlign()) {
 					case CENTER:
-						cursorY += cell.getVerticalFreeSpace() / 2;
+						cursorY += verticalFreeSpace / 2;
 						break;
 					case LEFT:
 						break;
 					case RIGHT:
-						cursorY += cell.getVerticalFreeSpace();
+						cursorY += verticalFreeSpace;
 						break;
 					}
 					// respect left padding and descend by font height to get position of the base line
 					cursorX += cell.getLeftPadding()
-							+ (cell.getLeftBorder() == null ? 0 : cell.getLeftBorder().getWidth())
+							+ widthOf(leftBorder)
 							+ FontUtils.getHeight(cell.getFont(), cell.getFontSize())
 							+ FontUtils.getDescent(cell.getFont(), cell.getFontSize());
 
@@ -454,59 +1078,55 @@ public abstract class Table<T extends PDPage> {
 					case TOP:
 						break;
 					case MIDDLE:
-						cursorX += cell.getHorizontalFreeSpace() / 2;
+						cursorX += horizontalFreeSpace / 2;
 						break;
 					case BOTTOM:
-						cursorX += cell.getHorizontalFreeSpace();
+						cursorX += horizontalFreeSpace;
 						break;
 					}
-					// make tokenize method just in case
-					cell.getParagraph().getLines();
 				} else {
 					// debugging mode - drawing (default!) padding of rotated cells
 					//left
-					//					PDStreamUtils.rect(tableContentStream, cursorX, yStart, 5, cell.getHeight(), Color.RED);
+					//					PDStreamUtils.rect(contentStream, cursorX, yStart, 5, cell.getHeight(), Color.RED);
 					//top
-					//					PDStreamUtils.rect(tableContentStream, cursorX, yStart, cell.getWidth(), 5 , Color.RED);
+					//					PDStreamUtils.rect(contentStream, cursorX, yStart, cell.getWidth(), 5 , Color.RED);
 					// bottom
-					//					PDStreamUtils.rect(tableContentStream, cursorX, yStart - cell.getHeight(), cell.getWidth(), -5 , Color.RED);
+					//					PDStreamUtils.rect(contentStream, cursorX, yStart - cell.getHeight(), cell.getWidth(), -5 , Color.RED);
 					//right 
-					//					PDStreamUtils.rect(tableContentStream, cursorX + cell.getWidth() - 5, yStart, 5, cell.getHeight(), Color.RED);
+					//					PDStreamUtils.rect(contentStream, cursorX + cell.getWidth() - 5, yStart, 5, cell.getHeight(), Color.RED);
 
 					// position at top of current cell descending by font height - font descent, because we are
 					// positioning the base line here
 					cursorY = yStart - cell.getTopPadding() - FontUtils.getHeight(cell.getFont(), cell.getFontSize())
-							- FontUtils.getDescent(cell.getFont(), cell.getFontSize())
-							- (cell.getTopBorder() == null ? 0 : cell.getTopBorder().getWidth());
+							- FontUtils.getDescent(cell.getFont(), cell.getFontSize()) - widthOf(topBorder);
 
 					if (drawDebug) {
 						// @formatter:off 
 						// top padding
-						PDStreamUtils.rect(tableContentStream, cursorX + (cell.getLeftBorder() == null ? 0 : cell.getLeftBorder().getWidth()), yStart - (cell.getTopBorder() == null ? 0 : cell.getTopBorder().getWidth()), cell.getWidth() - (cell.getLeftBorder() == null ? 0 : cell.getLeftBorder().getWidth()) - (cell.getRightBorder() == null ? 0 : cell.getRightBorder().getWidth()), cell.getTopPadding(), Color.RED);
+						PDStreamUtils.rect(contentStream, cursorX + widthOf(leftBorder), yStart - widthOf(topBorder), cell.getWidth() - widthOf(leftBorder) - widthOf(rightBorder), cell.getTopPadding(), Color.RED);
 						// bottom padding
-						PDStreamUtils.rect(tableContentStream, cursorX + (cell.getLeftBorder() == null ? 0 : cell.getLeftBorder().getWidth()), yStart - cell.getHeight() +  (cell.getBottomBorder() == null ? 0 : cell.getBottomBorder().getWidth()) + cell.getBottomPadding(), cell.getWidth() - (cell.getLeftBorder() == null ? 0 : cell.getLeftBorder().getWidth()) - (cell.getRightBorder() == null ? 0 : cell.getRightBorder().getWidth()), cell.getBottomPadding(), Color.RED);
+						PDStreamUtils.rect(contentStream, cursorX + widthOf(leftBorder), yStart - cell.getHeight() +  widthOf(bottomBorder) + cell.getBottomPadding(), cell.getWidth() - widthOf(leftBorder) - widthOf(rightBorder), cell.getBottomPadding(), Color.RED);
 						// left padding
-						PDStreamUtils.rect(tableContentStream, cursorX + (cell.getLeftBorder() == null ? 0 : cell.getLeftBorder().getWidth()), yStart - (cell.getTopBorder() == null ? 0 : cell.getTopBorder().getWidth()), cell.getLeftPadding(), cell.getHeight() - (cell.getTopBorder() == null ? 0 : cell.getTopBorder().getWidth()) - (cell.getBottomBorder() == null ? 0 : cell.getBottomBorder().getWidth()), Color.RED);
+						PDStreamUtils.rect(contentStream, cursorX + widthOf(leftBorder), yStart - widthOf(topBorder), cell.getLeftPadding(), cell.getHeight() - widthOf(topBorder) - widthOf(bottomBorder), Color.RED);
 						// right padding
-						PDStreamUtils.rect(tableContentStream, cursorX + cell.getWidth() - (cell.getRightBorder() == null ? 0 : cell.getRightBorder().getWidth()) , yStart - (cell.getTopBorder() == null ? 0 : cell.getTopBorder().getWidth()), -cell.getRightPadding(), cell.getHeight() - (cell.getTopBorder() == null ? 0 : cell.getTopBorder().getWidth()) - (cell.getBottomBorder() == null ? 0 : cell.getBottomBorder().getWidth()), Color.RED);
+						PDStreamUtils.rect(contentStream, cursorX + cell.getWidth() - widthOf(rightBorder) , yStart - widthOf(topBorder), -cell.getRightPadding(), cell.getHeight() - widthOf(topBorder) - widthOf(bottomBorder), Color.RED);
 						// @formatter:on 
 					}
 					
 					
 					// respect left padding
-					cursorX += cell.getLeftPadding()
-							+ (cell.getLeftBorder() == null ? 0 : cell.getLeftBorder().getWidth());
+					cursorX += cell.getLeftPadding() + widthOf(leftBorder);
 
 					// the widest text does not fill the inner width of the cell? no
 					// problem, just add it ;)
 					switch (cell.getAlign()) {
 					case CENTER:
-						cursorX += cell.getHorizontalFreeSpace() / 2;
+						cursorX += cell.getHorizontalFreeSpace(innerWidth) / 2;
 						break;
 					case LEFT:
 						break;
 					case RIGHT:
-						cursorX += cell.getHorizontalFreeSpace();
+						cursorX += cell.getHorizontalFreeSpace(innerWidth);
 						break;
 					}
 
@@ -514,10 +1134,10 @@ public abstract class Table<T extends PDPage> {
 					case TOP:
 						break;
 					case MIDDLE:
-						cursorY -= cell.getVerticalFreeSpace() / 2;
+						cursorY -= cell.getVerticalFreeSpace(innerHeight) / 2;
 						break;
 					case BOTTOM:
-						cursorY -= cell.getVerticalFreeSpace();
+						cursorY -= cell.getVerticalFreeSpace(innerHeight);
 						break;
 					}
 					
@@ -528,26 +1148,18 @@ public abstract class Table<T extends PDPage> {
 				float lineStartX = cursorX;
 				float lineStartY = cursorY;
 				
-				// if it is head row or if it is header cell then please use bold font
-				if (row.equals(header) || cell.isHeaderCell()) {
-					this.tableContentStream.setFont(cell.getParagraph().getFont(true, false), cell.getFontSize());
-				}
-				this.tableContentStream.setNonStrokingColor(cell.getTextColor());
+				contentStream.setNonStrokingColor(cell.getTextColor());
+				final CellText text = new CellText(contentStream, cell.getFontSize(), cell.isTextRotated());
 
 				int italicCounter = 0;
 				int boldCounter = 0;
 
-				// if hidden cell then please empty the cell raw value
-				if(cell.isHiddenCell()) {
-					cell.setText("");
-				}
-				
-				// print all lines of the cell
-				for (Map.Entry<Integer, List<Token>> entry : cell.getParagraph().getMapLineTokens().entrySet()) {
+				// print all lines of the cell, hidden cells are drawn without text
+				final int lineCount = cell.isHiddenCell() && !drawnRow.hiddenCellsShown ? 0 : paragraph.getLineCount();
+				for (int line = 0; line < lineCount; line++) {
 
 					// calculate the width of this line
-					float freeSpaceWithinLine = cell.getParagraph().getMaxLineWidth()
-							- cell.getParagraph().getLineWidth(entry.getKey());
+					float freeSpaceWithinLine = paragraph.getMaxLineWidth() - paragraph.getLineWidth(line);
 					//TODO: need to implemented rotated text yo!
 					if (cell.isTextRotated()) {
 						cursorY = lineStartY;
@@ -578,8 +1190,9 @@ public abstract class Table<T extends PDPage> {
 					}
 
 					// iterate through tokens in current line
-					PDFont currentFont = cell.getParagraph().getFont(false, false);
-					for (Token token : entry.getValue()) {
+					PDFont currentFont = paragraph.getFont(false, false);
+					for (int i = paragraph.getLineTokenStart(line); i < paragraph.getLineTokenEnd(line); i++) {
+						final Token token = paragraph.getLineToken(i);
 						switch (token.getType()) {
 						case OPEN_TAG:
 							if ("b".equals(token.getData())) {
@@ -596,102 +1209,173 @@ public abstract class Table<T extends PDPage> {
 							}
 							break;
 						case PADDING:
-							cursorX += Float.parseFloat(token.getData());
-							break;
-						case ORDERING:
-							this.tableContentStream.beginText();
-							currentFont = cell.getParagraph().getFont(boldCounter > 0, italicCounter > 0);
-							this.tableContentStream.setFont(currentFont, cell.getFontSize());
-							if (cell.isTextRotated()) {
-								final AffineTransform transform = AffineTransform.getTranslateInstance(cursorX,
-										cursorY);
-								transform.concatenate(AffineTransform.getRotateInstance(Math.PI * 0.5f));
-								transform.concatenate(AffineTransform.getTranslateInstance(-cursorX, -cursorY));
-								tableContentStream.setTextMatrix(new Matrix(transform));
-								tableContentStream.newLineAtOffset(cursorX, cursorY);
-								this.tableContentStream.showText(token.getData());
-								this.tableContentStream.endText();
-								this.tableContentStream.closePath();
-								cursorY += currentFont.getStringWidth(token.getData()) / 1000 * cell.getFontSize();
-							} else {
-								this.tableContentStream.newLineAtOffset(cursorX, cursorY);
-								this.tableContentStream.showText(token.getData());
-								this.tableContentStream.endText();
-								this.tableContentStream.closePath();
-								cursorX += currentFont.getStringWidth(token.getData()) / 1000 * cell.getFontSize();
-							}
+							cursorX += token.getPadding();
 							break;
 						case BULLET:
-
+							// no paths within a text object
+							text.end();
 							if (cell.isTextRotated()) {
 								// move cursorX up because bullet needs to be in the middle of font height
 								cursorX += FontUtils.getHeight(currentFont, cell.getFontSize()) / 2;
-								PDStreamUtils.rect(tableContentStream, cursorX, cursorY,
-										currentFont.getStringWidth(token.getData()) / 1000 * cell.getFontSize(),
-										currentFont.getStringWidth(" ") / 1000 * cell.getFontSize(),
+								PDStreamUtils.rect(contentStream, cursorX, cursorY,
+										FontUtils.getStringWidth(currentFont, token.getData(), cell.getFontSize()),
+										FontUtils.getStringWidth(currentFont, " ", cell.getFontSize()),
 										cell.getTextColor());
 								// move cursorY for two characters (one for bullet, one for space after bullet)
-								cursorY += 2 * currentFont.getStringWidth(" ") / 1000 * cell.getFontSize();
+								cursorY += 2 * FontUtils.getStringWidth(currentFont, " ", cell.getFontSize());
 								// return cursorY to his original place
 								cursorX -= FontUtils.getHeight(currentFont, cell.getFontSize()) / 2;
 							} else {
 								// move cursorY up because bullet needs to be in the middle of font height
 								cursorY += FontUtils.getHeight(currentFont, cell.getFontSize()) / 2;
-								PDStreamUtils.rect(tableContentStream, cursorX, cursorY,
-										currentFont.getStringWidth(token.getData()) / 1000 * cell.getFontSize(),
-										currentFont.getStringWidth(" ") / 1000 * cell.getFontSize(),
+								PDStreamUtils.rect(contentStream, cursorX, cursorY,
+										FontUtils.getStringWidth(currentFont, token.getData(), cell.getFontSize()),
+										FontUtils.getStringWidth(currentFont, " ", cell.getFontSize()),
 										cell.getTextColor());
 								// move cursorX for two characters (one for bullet, one for space after bullet)
-								cursorX += 2 * currentFont.getStringWidth(" ") / 1000 * cell.getFontSize();
+								cursorX += 2 * FontUtils.getStringWidth(currentFont, " ", cell.getFontSize());
 								// return cursorY to his original place
 								cursorY -= FontUtils.getHeight(currentFont, cell.getFontSize()) / 2;
 							}
 							break;
+						case ORDERING:
 						case TEXT:
-							this.tableContentStream.beginText();
-							currentFont = cell.getParagraph().getFont(boldCounter > 0, italicCounter > 0);
-							this.tableContentStream.setFont(currentFont, cell.getFontSize());
+							currentFont = paragraph.getFont(boldCounter > 0, italicCounter > 0);
+							text.show(currentFont, token.getData(), cursorX, cursorY);
 							if (cell.isTextRotated()) {
-								final AffineTransform transform = AffineTransform.getTranslateInstance(cursorX,
-										cursorY);
-								transform.concatenate(AffineTransform.getRotateInstance(Math.PI * 0.5f));
-								transform.concatenate(AffineTransform.getTranslateInstance(-cursorX, -cursorY));
-								tableContentStream.setTextMatrix(new Matrix(transform));
-								tableContentStream.newLineAtOffset(cursorX, cursorY);
-								this.tableContentStream.showText(token.getData());
-								this.tableContentStream.endText();
-								this.tableContentStream.closePath();
-								cursorY += currentFont.getStringWidth(token.getData()) / 1000 * cell.getFontSize();
+								cursorY += FontUtils.getStringWidth(currentFont, token.getData(), cell.getFontSize());
 							} else {
-								try {
-									this.tableContentStream.newLineAtOffset(cursorX, cursorY);
-									this.tableContentStream.showText(token.getData());
-									this.tableContentStream.endText();
-									this.tableContentStream.closePath();
-									cursorX += currentFont.getStringWidth(token.getData()) / 1000 * cell.getFontSize();
-								} catch (IOException e) {
-									e.printStackTrace();
-								}
+								cursorX += FontUtils.getStringWidth(currentFont, token.getData(), cell.getFontSize());
 							}
 							break;
 						}
 					}
 					if (cell.isTextRotated()) {
-						cursorX = cursorX + cell.getParagraph().getFontHeight()* cell.getLineSpacing();
+						cursorX = cursorX + paragraph.getFontHeight()* cell.getLineSpacing();
 					} else {
-						cursorY = cursorY - cell.getParagraph().getFontHeight()* cell.getLineSpacing();
+						cursorY = cursorY - paragraph.getFontHeight()* cell.getLineSpacing();
 					}
 				}
+				text.end();
 			}
 			// set cursor to the start of this cell plus its width to advance to the next cell
 			cursorX = cellStartX + cell.getWidth();
 		}
-		// Set Y position for next row
-		yStart = yStart - row.getHeight();
+	}
+
+	/**
+	 * <p>
+	 * Writes the text of a cell as a single text object, which is only ended
+	 * to draw bullets. Fonts are set when they change, and each token is
+	 * positioned relative to the previous one, within the rotated text space
+	 * if the text of the cell is rotated.
+	 * </p>
+	 */
+	private final class CellText {
+
+		private final TrackingContentStream contentStream;
+
+		private final float fontSize;
+
+		private final boolean rotated;
+
+		private boolean open = false;
+
+		private PDFont font;
+
+		// start of the current line of the text object on the page
+		private float x;
+		private float y;
+
+		private CellText(TrackingContentStream contentStream, float fontSize, boolean rotated) {
+			this.contentStream = contentStream;
+			this.fontSize = fontSize;
+			this.rotated = rotated;
+		}
+
+		private void show(PDFont font, String text, float cursorX, float cursorY) throws IOException {
+			if (!open) {
+				contentStream.beginText();
+				open = true;
+				if (rotated) {
+					// turn the text space by 90 degrees around the first token
+					contentStream.setTextMatrix(new Matrix(0, 1, -1, 0, cursorX, cursorY));
+					x = cursorX;
+					y = cursorY;
+				} else {
+					x = 0;
+					y = 0;
+				}
+			}
+			if (font != this.font) {
+				setFont(contentStream, font, fontSize);
+				this.font = font;
+			}
+			if (rotated) {
+				// the X axis of the rotated text space is the Y axis of the page
+				moveBy(cursorY - y, x - cursorX);
+			} else {
+				moveBy(cursorX - x, cursorY - y);
+			}
+			x = cursorX;
+			y = cursorY;
+			showText(contentStream, font, text);
+		}
+
+		private void moveBy(float tx, float ty) throws IOException {
+			if (tx != 0 || ty != 0) {
+				contentStream.newLineAtOffset(tx, ty);
+			}
+		}
 
+		private void end() throws IOException {
+			if (open) {
+				contentStream.endText();
+				open = false;
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Draws the rows of a page: the backgrounds of all cells first, then
+	 * their content and their borders last.
+	 * </p>
+	 */
+	private void drawRows(TrackingContentStream contentStream, List<DrawnRow<T>> drawnRows) throws IOException {
+		drawRows(contentStream, drawnRows, true);
+	}
+
+	/**
+	 * <p>
+	 * Draws the rows, leaving out the borders unless {@code strokeBorders}
+	 * is set. Only the borders of rows stamped by the header form are drawn.
+	 * </p>
+	 */
+	private void drawRows(TrackingContentStream contentStream, List<DrawnRow<T>> drawnRows, boolean strokeBorders)
+			throws IOException {
+		final FillPlanner fills = new FillPlanner();
+		final BorderPlanner borders = new BorderPlanner();
+		if (drawLines) {
+			for (DrawnRow<T> drawnRow : drawnRows) {
+				drawVerticalLines(fills, borders, drawnRow);
+			}
+			fills.fill(contentStream);
+		}
+		if (drawContent) {
+			for (DrawnRow<T> drawnRow : drawnRows) {
+				if (!drawnRow.stamped) {
+					drawCellContent(contentStream, drawnRow);
+				}
+			}
+		}
+		if (strokeBorders) {
+			borders.stroke(contentStream);
+		}
 	}
 
-	private void drawVerticalLines(Row<T> row) throws IOException {
+	private void drawVerticalLines(FillPlanner fills, BorderPlanner borders, DrawnRow<T> drawnRow) {
+		final Row<T> row = drawnRow.row;
 		float xStart = margin;
 
 		// give an extra margin to the latest cell
@@ -701,75 +1385,91 @@ public abstract class Table<T extends PDPage> {
 		while (cellIterator.hasNext()) {
 			Cell<T> cell = cellIterator.next();
 
-			fillCellColor(cell, yStart, xStart, cellIterator);
+			if (!drawnRow.stamped) {
+				fillCellColor(fills, cell, getTopBorder(drawnRow, cell), drawnRow.yStart, xStart, cellIterator);
+			}
 
-			drawCellBorders(row, cell, xStart, xEnd);
+			drawCellBorders(borders, drawnRow, cell, xStart, xEnd);
 
 			xStart += getWidth(cell, cellIterator);
 		}
 
 	}
 
-	private void drawCellBorders(Row<T> row, Cell<T> cell, float xStart, float xEnd) throws IOException {
+	private void drawCellBorders(BorderPlanner borders, DrawnRow<T> drawnRow, Cell<T> cell, float xStart, float xEnd) {
 
-		float yEnd = yStart - row.getHeight();
+		float yStart = drawnRow.yStart;
+		float yEnd = yStart - drawnRow.row.getHeight();
 
 		// top
-		LineStyle topBorder = cell.getTopBorder();
+		LineStyle topBorder = getTopBorder(drawnRow, cell);
+		// the right border of a row joining a table drawn before is stroked
+		// separately from the one above, so it reaches up into the bottom
+		// border above to join it without a seam, as within a single table
+		float yRightStart = drawnRow.joinedAbove ? yStart + widthOf(cell.getTopBorder()) : yStart;
 		if (topBorder != null) {
 			float y = yStart - topBorder.getWidth() / 2;
-			drawLine(xStart, y, xStart + cell.getWidth(), y, topBorder);
+			borders.addHorizontal(topBorder, y, xStart, xStart + cell.getWidth());
 		}
 
 		// right
-		LineStyle rightBorder = cell.getRightBorder();
+		LineStyle rightBorder = getRightBorder(cell);
 		if (rightBorder != null) {
 			float x = xStart + cell.getWidth() - rightBorder.getWidth() / 2;
-			drawLine(x, yStart - (topBorder == null ? 0 : topBorder.getWidth()), x, yEnd, rightBorder);
+			borders.addVertical(rightBorder, x, yRightStart - (topBorder == null ? 0 : topBorder.getWidth()), yEnd);
 		}
 
 		// bottom
-		LineStyle bottomBorder = cell.getBottomBorder();
+		LineStyle bottomBorder = getBottomBorder(cell);
 		if (bottomBorder != null) {
 			float y = yEnd + bottomBorder.getWidth() / 2;
-			drawLine(xStart, y, xStart + cell.getWidth() - (rightBorder == null ? 0 : rightBorder.getWidth()), y,
-					bottomBorder);
+			borders.addHorizontal(bottomBorder, y, xStart,
+					xStart + cell.getWidth() - (rightBorder == null ? 0 : rightBorder.getWidth()));
 		}
 
 		// left
-		LineStyle leftBorder = cell.getLeftBorder();
+		LineStyle leftBorder = getLeftBorder(cell);
 		if (leftBorder != null) {
 			float x = xStart + leftBorder.getWidth() / 2;
-			drawLine(x, yStart, x, yEnd + (bottomBorder == null ? 0 : bottomBorder.getWidth()), leftBorder);
+			borders.addVertical(leftBorder, x, yStart, yEnd + (bottomBorder == null ? 0 : bottomBorder.getWidth()));
 		}
 
 	}
 
-	private void drawLine(float xStart, float yStart, float xEnd, float yEnd, LineStyle border) throws IOException {
-		PDStreamUtils.setLineStyles(tableContentStream, border);
-		tableContentStream.moveTo(xStart, yStart);
-		tableContentStream.lineTo(xEnd, yEnd);
-		tableContentStream.stroke();
-		tableContentStream.closePath();
+	/**
+	 * The top border is left out below another row, all borders if the table
+	 * has {@linkplain #removeAllBorders(boolean) no borders}.
+	 */
+	private LineStyle getTopBorder(DrawnRow<T> drawnRow, Cell<T> cell) {
+		return removeAllBorders || drawnRow.topBordersRemoved ? null : cell.getTopBorder();
 	}
 
-	private void fillCellColor(Cell<T> cell, float yStart, float xStart, Iterator<Cell<T>> cellIterator)
-			throws IOException {
+	private LineStyle getRightBorder(Cell<T> cell) {
+		return removeAllBorders ? null : cell.getRightBorder();
+	}
 
-		if (cell.getFillColor() != null) {
-			this.tableContentStream.setNonStrokingColor(cell.getFillColor());
+	private LineStyle getBottomBorder(Cell<T> cell) {
+		return removeAllBorders ? null : cell.getBottomBorder();
+	}
 
+	private LineStyle getLeftBorder(Cell<T> cell) {
+		return removeAllBorders ? null : cell.getLeftBorder();
+	}
+
+	private static float widthOf(LineStyle border) {
+		return border == null ? 0 : border.getWidth();
+	}
+
+	private void fillCellColor(FillPlanner fills, Cell<T> cell, LineStyle topBorder, float yStart, float xStart,
+			Iterator<Cell<T>> cellIterator) {
+
+		if (cell.getFillColor() != null) {
 			// y start is bottom pos
 			yStart = yStart - cell.getHeight();
-			float height = cell.getHeight() - (cell.getTopBorder() == null ? 0 : cell.getTopBorder().getWidth());
+			float height = cell.getHeight() - (topBorder == null ? 0 : topBorder.getWidth());
 
 			float cellWidth = getWidth(cell, cellIterator);
-			this.tableContentStream.addRect(xStart, yStart, cellWidth, height);
-			this.tableContentStream.fill();
-			this.tableContentStream.closePath();
-
-			// Reset NonStroking Color to default value
-			this.tableContentStream.setNonStrokingColor(Color.BLACK);
+			fills.add(cell.getFillColor(), xStart, yStart, cellWidth, height);
 		}
 	}
 
@@ -785,12 +1485,28 @@ public abstract class Table<T extends PDPage> {
 
 	private void ensureStreamIsOpen() throws IOException {
 		if (tableContentStream == null) {
-			tableContentStream = createPdPageContentStream();
+			tableContentStream = new TrackingContentStream(createPdPageContentStream());
 		}
 	}
 
 	private void endTable() throws IOException {
-		this.tableContentStream.close();
+		if (pageContents == null) {
+			closeTableContentStream();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Draws the rows collected for the current page and closes its content
+	 * stream.
+	 * </p>
+	 */
+	private void closeTableContentStream() throws IOException {
+		if (!pageRows.isEmpty()) {
+			drawRows(tableContentStream, pageRows);
+			pageRows.clear();
+		}
+		tableContentStream.close();
 	}
 
 	public T getCurrentPage() {
@@ -798,19 +1514,15 @@ public abstract class Table<T extends PDPage> {
 		return this.currentPage;
 	}
 
-	private boolean isEndOfPage(Row<T> row) {
-		float currentY = yStart - row.getHeight();
-		boolean isEndOfPage = currentY <= pageBottomMargin;
-		if (isEndOfPage) {
-			setTableIsBroken(true);
-		}
+	private boolean isEndOfPage(float y, float height) {
+		float currentY = y - height;
 
 		// If we are closer than bottom margin, consider this as
 		// the end of the currentPage
 		// If you add rows that are higher then bottom margin, this needs to be
 		// checked
 		// manually using getNextYPos
-		return isEndOfPage;
+		return currentY <= pageBottomMargin;
 	}
 
 	private boolean isEndOfPage(float freeSpaceForPageBreak) {
@@ -823,10 +1535,16 @@ public abstract class Table<T extends PDPage> {
 	}
 
 	private void pageBreak() throws IOException {
-		tableContentStream.close();
 		this.yStart = yStartNewPage - pageTopMargin;
-		this.currentPage = createNewPage();
-		this.tableContentStream = createPdPageContentStream();
+		this.topBorderContinued = false;
+		if (pageContents != null) {
+			this.currentPage = createNewPage();
+			pageContents.add(new PageContent(currentPage));
+		} else {
+			closeTableContentStream();
+			this.currentPage = createNewPage();
+			this.tableContentStream = new TrackingContentStream(createPdPageContentStream());
+		}
 	}
 
 	private void addBookmark(PDOutlineItem bookmark) {
@@ -971,6 +1689,133 @@ public abstract class Table<T extends PDPage> {
 		this.removeAllBorders = removeAllBorders;
 	}
 
+	public TableState getStartState() {
+		return startState;
+	}
+
+	/**
+	 * <p>
+	 * Starts the table in the given state, to continue a table drawn before by
+	 * another {@link Table} instance with the same header rows. Also sets the
+	 * Y position where the table starts.
+	 * </p>
+	 *
+	 * @param startState
+	 *            {@link TableState} of the table drawn before, e.g. from
+	 *            {@link #getEndState()} or
+	 *            {@link PaginationPlan.Page#getStartState()}
+	 */
+	public void setStartState(TableState startState) {
+		this.startState = checkNotNull(startState, "Start state must not be null");
+		this.yStart = startState.getYStart();
+		this.topBorderContinued = startState.isTopBorderRemoved();
+		this.continuedOnNewPage = !startState.isTopBorderRemoved();
+	}
+
+	/**
+	 * <p>
+	 * Retrieves the state after the last row, to continue the table on the
+	 * current page with another {@link Table} instance.
+	 * </p>
+	 *
+	 * @return {@link TableState} after the last drawn row
+	 * @see #setStartState(TableState)
+	 */
+	public TableState getEndState() {
+		return new TableState(yStart, true, true);
+	}
+
+	public ForkJoinPool getLayoutPool() {
+		return layoutPool;
+	}
+
+	/**
+	 * <p>
+	 * Sets the pool on which {@link #draw()} lays out the cells before
+	 * drawing them. The rows are laid out in parallel, drawing stays on the
+	 * calling thread and produces the same output as without a pool.
+	 * </p>
+	 * <p>
+	 * The rows must not be changed by other threads while the table is drawn.
+	 * </p>
+	 *
+	 * @param layoutPool
+	 *            {@link ForkJoinPool} for the layout or {@code null} to lay
+	 *            out the cells on the drawing thread
+	 * @see #setLayoutAheadRows(int)
+	 */
+	public void setLayoutPool(ForkJoinPool layoutPool) {
+		this.layoutPool = layoutPool;
+	}
+
+	public int getLayoutAheadRows() {
+		return layoutAheadRows;
+	}
+
+	/**
+	 * <p>
+	 * Limits how many rows the {@linkplain #setLayoutPool(ForkJoinPool)
+	 * layout pool} lays out ahead of drawing. All rows are still measured up
+	 * front, but the lines of their cells are built in batches of this many
+	 * rows, just before they are drawn. By default all rows are laid out at
+	 * once.
+	 * </p>
+	 *
+	 * @param layoutAheadRows
+	 *            number of rows laid out at once or {@code 0} for all rows
+	 */
+	public void setLayoutAheadRows(int layoutAheadRows) {
+		if (layoutAheadRows < 0) {
+			throw new IllegalArgumentException("Number of rows must not be negative: " + layoutAheadRows);
+		}
+		this.layoutAheadRows = layoutAheadRows;
+	}
+
+	public ExecutorService getRenderPool() {
+		return renderPool;
+	}
+
+	/**
+	 * <p>
+	 * Sets the pool on which {@link #draw()} renders the content of each page.
+	 * Page breaks, borders and bookmarks are still decided on the calling
+	 * thread, then the operators of all pages are built in parallel and
+	 * appended to the pages in order. The result is identical to drawing
+	 * without a pool.
+	 * </p>
+	 * <p>
+	 * Tables containing a {@link TableCell} are always drawn on the calling
+	 * thread.
+	 * </p>
+	 *
+	 * @param renderPool
+	 *            {@link ExecutorService} rendering the pages or {@code null}
+	 *            to draw on the calling thread
+	 */
+	public void setRenderPool(ExecutorService renderPool) {
+		this.renderPool = renderPool;
+	}
+
+	public boolean isHeaderAsForm() {
+		return headerAsForm;
+	}
+
+	/**
+	 * <p>
+	 * Renders the header rows repeated after each page break only once, into
+	 * a {@link PDFormXObject} which every page refers to. Long tables get
+	 * smaller and faster to draw, as the header is neither laid out nor
+	 * written again for each page. Header rows containing a
+	 * {@link TableCell} are always drawn on each page.
+	 * </p>
+	 *
+	 * @param headerAsForm
+	 *            {@code true} to draw the repeated header rows as a form
+	 */
+	public void setHeaderAsForm(boolean headerAsForm) {
+		this.headerAsForm = headerAsForm;
+	}
+
 	public int getMindatarows() {
 		return mindatarows;
 	}
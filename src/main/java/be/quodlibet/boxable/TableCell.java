@@ -1,9 +1,8 @@
 package be.quodlibet.boxable;
 
+import java.awt.Color;
 import java.awt.geom.AffineTransform;
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -47,6 +46,8 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 	private final float pageBottomMargin;
 	// default title fonts
 	private int tableTitleFontSize = 8;
+	// the table leaves out the top border below another row
+	private boolean topBorderRemoved = false;
 
 	TableCell(Row<T> row, float width, String tableData, boolean isCalculated, PDDocument document, PDPage page,
 			float yStart, float pageTopMargin, float pageBottomMargin) {
@@ -111,15 +112,15 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 							if (captionTag != null) {
 								caption = captionTag.text();
 								tableTitle = new Paragraph(caption, getFontBold(), tableTitleFontSize, tableWidth,
-										HorizontalAlignment.CENTER, null);
+										HorizontalAlignment.CENTER, Color.BLACK, null, null, 1, getRenderContext());
 								yStart -= tableTitle.getHeight() + marginBetweenElementsY;
 							}
 							height += (captionTag != null ? tableTitle.getHeight() + marginBetweenElementsY : 0);
 							createInnerTable(tableWidth, document, page, false);
 						} else {
 							// make paragraph and get tokens
-							outerTextParagraph = new Paragraph(chunkie, getFont(), 8, (int) tableWidth);
-							outerTextParagraph.getLines();
+							outerTextParagraph = new Paragraph(chunkie, getFont(), 8, (int) tableWidth,
+									HorizontalAlignment.LEFT, Color.BLACK, null, null, 1, getRenderContext());
 							height += (outerTextParagraph != null
 									? outerTextParagraph.getHeight() + marginBetweenElementsY : 0);
 							yStart = writeOrCalculateParagraph(outerTextParagraph, true);
@@ -127,8 +128,8 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 					}
 				} else {
 					// make paragraph and get tokens
-					outerTextParagraph = new Paragraph(element, getFont(), 8, (int) tableWidth);
-					outerTextParagraph.getLines();
+					outerTextParagraph = new Paragraph(element, getFont(), 8, (int) tableWidth,
+							HorizontalAlignment.LEFT, Color.BLACK, null, null, 1, getRenderContext());
 					height += (outerTextParagraph != null ? outerTextParagraph.getHeight() + marginBetweenElementsY
 							: 0);
 					yStart = writeOrCalculateParagraph(outerTextParagraph, true);
@@ -206,14 +207,14 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 		// position at top of current cell descending by font height - font
 		// descent, because we are positioning the base line here
 		float cursorY = yStart - getTopPadding() - FontUtils.getHeight(getFont(), getFontSize())
-				- FontUtils.getDescent(getFont(), getFontSize()) - (getTopBorder() == null ? 0 : getTopBorder().getWidth());
+				- FontUtils.getDescent(getFont(), getFontSize()) - getTopBorderWidth();
 		float cursorX = xStart;
 
 		// loop through tokens
-		for (Map.Entry<Integer, List<Token>> entry : paragraph.getMapLineTokens().entrySet()) {
+		for (int line = 0; line < paragraph.getLineCount(); line++) {
 
 			// calculate the width of this line
-			float freeSpaceWithinLine = paragraph.getMaxLineWidth() - paragraph.getLineWidth(entry.getKey());
+			float freeSpaceWithinLine = paragraph.getMaxLineWidth() - paragraph.getLineWidth(line);
 			if (isTextRotated()) {
 				switch (align) {
 				case CENTER:
@@ -242,7 +243,8 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 
 			// iterate through tokens in current line
 			PDFont currentFont = paragraph.getFont(false, false);
-			for (Token token : entry.getValue()) {
+			for (int i = paragraph.getLineTokenStart(line); i < paragraph.getLineTokenEnd(line); i++) {
+				final Token token = paragraph.getLineToken(i);
 				switch (token.getType()) {
 				case OPEN_TAG:
 					if ("b".equals(token.getData())) {
@@ -259,7 +261,7 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 					}
 					break;
 				case PADDING:
-					cursorX += Float.parseFloat(token.getData());
+					cursorX += token.getPadding();
 					break;
 				case ORDERING:
 					tableCellContentStream.beginText();
@@ -275,14 +277,14 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 							tableCellContentStream.newLineAtOffset(cursorX, cursorY);
 							tableCellContentStream.showText(token.getData());
 						}
-						cursorY += currentFont.getStringWidth(token.getData()) / 1000 * getFontSize();
+						cursorY += FontUtils.getStringWidth(currentFont, token.getData(), getFontSize());
 					} else {
 						// if it is not calculation then draw it
 						if (!onlyCalculateHeight) {
 							tableCellContentStream.newLineAtOffset(cursorX, cursorY);
 							tableCellContentStream.showText(token.getData());
 						}
-						cursorX += currentFont.getStringWidth(token.getData()) / 1000 * getFontSize();
+						cursorX += FontUtils.getStringWidth(currentFont, token.getData(), getFontSize());
 					}
 					tableCellContentStream.endText();
 					tableCellContentStream.closePath();
@@ -294,12 +296,12 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 						cursorX += FontUtils.getHeight(currentFont, getFontSize()) / 2;
 						if (!onlyCalculateHeight) {
 							PDStreamUtils.rect(tableCellContentStream, cursorX, cursorY,
-									currentFont.getStringWidth(token.getData()) / 1000 * getFontSize(),
-									currentFont.getStringWidth(" ") / 1000 * getFontSize(), getTextColor());
+									FontUtils.getStringWidth(currentFont, token.getData(), getFontSize()),
+									FontUtils.getStringWidth(currentFont, " ", getFontSize()), getTextColor());
 						}
 						// move cursorY for two characters (one for bullet, one
 						// for space after bullet)
-						cursorY += 2 * currentFont.getStringWidth(" ") / 1000 * getFontSize();
+						cursorY += 2 * FontUtils.getStringWidth(currentFont, " ", getFontSize());
 						// return cursorY to his original place
 						cursorX -= FontUtils.getHeight(currentFont, getFontSize()) / 2;
 					} else {
@@ -308,12 +310,12 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 						cursorY += FontUtils.getHeight(currentFont, getFontSize()) / 2;
 						if (!onlyCalculateHeight) {
 							PDStreamUtils.rect(tableCellContentStream, cursorX, cursorY,
-									currentFont.getStringWidth(token.getData()) / 1000 * getFontSize(),
-									currentFont.getStringWidth(" ") / 1000 * getFontSize(), getTextColor());
+									FontUtils.getStringWidth(currentFont, token.getData(), getFontSize()),
+									FontUtils.getStringWidth(currentFont, " ", getFontSize()), getTextColor());
 						}
 						// move cursorX for two characters (one for bullet, one
 						// for space after bullet)
-						cursorX += 2 * currentFont.getStringWidth(" ") / 1000 * getFontSize();
+						cursorX += 2 * FontUtils.getStringWidth(currentFont, " ", getFontSize());
 						// return cursorY to his original place
 						cursorY -= FontUtils.getHeight(currentFont, getFontSize()) / 2;
 					}
@@ -333,7 +335,7 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 							tableCellContentStream.endText();
 							tableCellContentStream.closePath();
 						}
-						cursorY += currentFont.getStringWidth(token.getData()) / 1000 * getFontSize();
+						cursorY += FontUtils.getStringWidth(currentFont, token.getData(), getFontSize());
 					} else {
 						if (!onlyCalculateHeight) {
 							tableCellContentStream.beginText();
@@ -342,7 +344,7 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 							tableCellContentStream.endText();
 							tableCellContentStream.closePath();
 						}
-						cursorX += currentFont.getStringWidth(token.getData()) / 1000 * getFontSize();
+						cursorX += FontUtils.getStringWidth(currentFont, token.getData(), getFontSize());
 					}
 					break;
 				}
@@ -370,8 +372,24 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 	 *            {@link PDPage} where table cell be written on
 	 * 
 	 */
-	@SuppressWarnings({ "unused", "unchecked" })
 	public void draw(PDPage page) {
+		draw(page, false);
+	}
+
+	/**
+	 * <p>
+	 * Writes the table cell like {@link #draw(PDPage)}, leaving out the top
+	 * border if the table does so for the row.
+	 * </p>
+	 *
+	 * @param page
+	 *            {@link PDPage} where table cell be written on
+	 * @param topBorderRemoved
+	 *            if {@code true} the top border isn't drawn
+	 */
+	@SuppressWarnings({ "unused", "unchecked" })
+	void draw(PDPage page, boolean topBorderRemoved) {
+		this.topBorderRemoved = topBorderRemoved;
 		try {
 			// please consider the cell's paddings
 			float tableWidth = this.width - getLeftPadding() - getRightPadding();
@@ -385,7 +403,7 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 			Paragraph outerTextParagraph = null;
 			String caption = "";
 			height = 0;
-			height = (getTopBorder() == null ? 0 : getTopBorder().getWidth()) + getTopPadding();
+			height = getTopBorderWidth() + getTopPadding();
 			for (String element : outerTableText) {
 				if (element.contains("</table")) {
 					String[] chunks = element.split("</table>");
@@ -398,7 +416,7 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 							if (captionTag != null) {
 								caption = captionTag.text();
 								tableTitle = new Paragraph(caption, getFontBold(), tableTitleFontSize, tableWidth,
-										HorizontalAlignment.CENTER, null);
+										HorizontalAlignment.CENTER, Color.BLACK, null, null, 1, getRenderContext());
 								yStart = tableTitle.write(tableCellContentStream, xStart, yStart)
 										- marginBetweenElementsY;
 							}
@@ -406,8 +424,8 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 							createInnerTable(tableWidth, document, page, true);
 						} else {
 							// make paragraph and get tokens
-							outerTextParagraph = new Paragraph(chunkie, getFont(), 8, (int) tableWidth);
-							outerTextParagraph.getLines();
+							outerTextParagraph = new Paragraph(chunkie, getFont(), 8, (int) tableWidth,
+									HorizontalAlignment.LEFT, Color.BLACK, null, null, 1, getRenderContext());
 							height += (outerTextParagraph != null
 									? outerTextParagraph.getHeight() + marginBetweenElementsY : 0);
 							yStart = writeOrCalculateParagraph(outerTextParagraph, false);
@@ -415,8 +433,8 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 					}
 				} else {
 					// make paragraph and get tokens
-					outerTextParagraph = new Paragraph(element, getFont(), 8, (int) tableWidth);
-					outerTextParagraph.getLines();
+					outerTextParagraph = new Paragraph(element, getFont(), 8, (int) tableWidth,
+							HorizontalAlignment.LEFT, Color.BLACK, null, null, 1, getRenderContext());
 					height += (outerTextParagraph != null ? outerTextParagraph.getHeight() + marginBetweenElementsY
 							: 0);
 					yStart = writeOrCalculateParagraph(outerTextParagraph, false);
@@ -428,6 +446,10 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 		}
 	}
 
+	private float getTopBorderWidth() {
+		return topBorderRemoved || getTopBorder() == null ? 0 : getTopBorder().getWidth();
+	}
+
 	public float getXPosition() {
 		return xStart;
 	}
@@ -450,13 +472,13 @@ public class TableCell<T extends PDPage> extends Cell<T> {
 	}
 
 	@Override
-	public float getHorizontalFreeSpace() {
-		return getInnerWidth() - width;
+	float getHorizontalFreeSpace(float innerWidth) {
+		return innerWidth - width;
 	}
 
 	@Override
-	public float getVerticalFreeSpace() {
-		return getInnerHeight() - width;
+	float getVerticalFreeSpace(float innerHeight) {
+		return innerHeight - width;
 	}
 
 }
\ No newline at end of file
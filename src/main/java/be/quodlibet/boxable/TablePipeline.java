@@ -0,0 +1,205 @@
+package be.quodlibet.boxable;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * <p>
+ * Draws the rows of a {@link Table} while they are still being created, so a
+ * slow data source overlaps with the layout and the rendering of the rows.
+ * </p>
+ * <p>
+ * Rows are created with {@link #createRow(float)}, filled with cells and
+ * handed over with {@link #put(Row)}. A layout stage lays them out and an
+ * emit stage draws them into the document, both running on the executor
+ * passed to {@link #start(Executor)}. The stages are connected by queues of
+ * the given capacity: when they are full, {@link #put(Row)} waits, so at most
+ * about twice the capacity of rows is kept in memory besides the rows of the
+ * current page. Rows of finished pages aren't referenced by the table,
+ * except for their bookmarks.
+ * </p>
+ * <p>
+ * The rows of the table itself, usually the header rows, are drawn before
+ * the first row of the pipeline. Until the future of {@link #start(Executor)}
+ * is done, the pipeline owns the table and its document like
+ * {@link Table#drawAsync(Executor)} does.
+ * </p>
+ */
+public final class TablePipeline<T extends PDPage> {
+
+	private final Table<T> table;
+
+	private final BlockingQueue<Row<T>> sourceQueue;
+
+	private final BlockingQueue<Row<T>> layoutQueue;
+
+	/**
+	 * Marks the end of the rows in the queues.
+	 */
+	private final Row<T> end;
+
+	private final SettableFuture<Float> result = SettableFuture.create();
+
+	/**
+	 * @param table
+	 *            {@link Table} the rows are added to
+	 * @param capacity
+	 *            Number of rows each of the queues between the stages can
+	 *            hold
+	 */
+	public TablePipeline(final Table<T> table, final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		this.table = table;
+		this.sourceQueue = new ArrayBlockingQueue<>(capacity);
+		this.layoutQueue = new ArrayBlockingQueue<>(capacity);
+		this.end = new Row<>(table, 0);
+	}
+
+	/**
+	 * <p>
+	 * Starts the layout and the emit stage on the executor, which must be
+	 * able to run both of them at the same time until all rows are drawn.
+	 * </p>
+	 *
+	 * @param executor
+	 *            {@link Executor} for the stages
+	 * @return future of the Y position of the table, failing with the
+	 *         exception of the first stage which failed
+	 */
+	public ListenableFuture<Float> start(final Executor executor) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				layout();
+			}
+		});
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				emit();
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Creates a row of the table, which is drawn once it is passed to
+	 * {@link #put(Row)}.
+	 * </p>
+	 *
+	 * @param height
+	 *            Minimal height of the row
+	 * @return new {@link Row}
+	 */
+	public Row<T> createRow(final float height) {
+		return table.createStreamedRow(height);
+	}
+
+	/**
+	 * <p>
+	 * Hands a row over to be drawn, waiting while the pipeline is full. The
+	 * row must not be changed afterwards.
+	 * </p>
+	 *
+	 * @param row
+	 *            {@link Row} created by {@link #createRow(float)}
+	 * @return {@code false} if the row is discarded because the pipeline has
+	 *         failed, see {@link #start(Executor)}
+	 * @throws InterruptedException
+	 *             If interrupted while waiting
+	 */
+	public boolean put(final Row<T> row) throws InterruptedException {
+		if (result.isDone()) {
+			return false;
+		}
+		sourceQueue.put(row);
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Marks the end of the rows, after which the table is finished. Must be
+	 * called even if putting rows fails, otherwise the stages keep waiting.
+	 * </p>
+	 *
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the pipeline
+	 */
+	public void close() throws InterruptedException {
+		if (result.isDone()) {
+			// the layout stage, if still running, only waits for the end
+			sourceQueue.clear();
+			sourceQueue.offer(end);
+		} else {
+			sourceQueue.put(end);
+		}
+	}
+
+	private void layout() {
+		boolean ended = false;
+		try {
+			Row<T> row;
+			while ((row = sourceQueue.take()) != end) {
+				// after a failure the rows are discarded until the source closes
+				if (!result.isDone()) {
+					row.layout();
+					layoutQueue.put(row);
+				}
+			}
+			if (!result.isDone()) {
+				layoutQueue.put(end);
+				ended = true;
+			}
+		} catch (InterruptedException e) {
+			result.setException(e);
+			Thread.currentThread().interrupt();
+		} catch (Throwable e) {
+			result.setException(e);
+		} finally {
+			if (!ended) {
+				// nobody takes the rows of the source anymore, and the emit
+				// stage, if still running, only waits for the end
+				sourceQueue.clear();
+				layoutQueue.clear();
+				layoutQueue.offer(end);
+			}
+		}
+	}
+
+	private void emit() {
+		boolean ended = false;
+		try {
+			Row<T> row;
+			while ((row = layoutQueue.take()) != end) {
+				if (!result.isDone()) {
+					table.drawStreamedRow(row);
+				}
+			}
+			ended = true;
+			if (!result.isDone()) {
+				result.set(table.endStreamedRows());
+			}
+		} catch (InterruptedException e) {
+			result.setException(e);
+			Thread.currentThread().interrupt();
+		} catch (Throwable e) {
+			result.setException(e);
+		} finally {
+			if (!ended) {
+				// the layout stage passes no rows on after the failure, but may
+				// be waiting to pass on the last one
+				layoutQueue.clear();
+			}
+		}
+	}
+}
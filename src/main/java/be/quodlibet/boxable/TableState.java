@@ -0,0 +1,78 @@
+package be.quodlibet.boxable;
+
+/**
+ * <p>
+ * State in which a {@link Table} starts drawing, to continue a table drawn
+ * before by another {@link Table} instance, possibly into another
+ * {@link org.apache.pdfbox.pdmodel.PDDocument}.
+ * </p>
+ * <p>
+ * This allows very large tables to be split into shards of rows: each shard
+ * contains the header rows and a range of data rows, is started with
+ * {@link Table#setStartState(TableState)} and drawn into its own document,
+ * e.g. on another thread. Shards starting at the pages of a
+ * {@link PaginationPlan} of the whole table use
+ * {@link PaginationPlan.Page#getStartState()} and produce the same pages as
+ * drawing the whole table at once. The shard documents are then merged in
+ * order, e.g. with {@code PDFMergerUtility#appendDocument}, which keeps their
+ * document outlines, so the bookmarks of {@link Table#getBookmarks()} should
+ * be added to the outline of each shard document before.
+ * </p>
+ * <p>
+ * To continue a table on the same page instead, use
+ * {@link Table#getEndState()} of the table drawn before.
+ * </p>
+ */
+public final class TableState {
+
+	private final float yStart;
+
+	private final boolean headerShown;
+
+	private final boolean topBorderRemoved;
+
+	/**
+	 * @param yStart
+	 *            Y position where the table continues
+	 * @param headerShown
+	 *            if {@code true} the header rows are already shown on the page
+	 *            and are only drawn again after a page break
+	 * @param topBorderRemoved
+	 *            if {@code true} the row above already drew the line between
+	 *            it and the first row, so the top border of the first row is
+	 *            removed. Otherwise the table continues on top of a new page
+	 *            and hidden cells of the first data row are shown.
+	 */
+	public TableState(final float yStart, final boolean headerShown, final boolean topBorderRemoved) {
+		this.yStart = yStart;
+		this.headerShown = headerShown;
+		this.topBorderRemoved = topBorderRemoved;
+	}
+
+	/**
+	 * @return Y position where the table continues
+	 */
+	public float getYStart() {
+		return yStart;
+	}
+
+	/**
+	 * @return {@code true} if the header rows are already shown on the page
+	 */
+	public boolean isHeaderShown() {
+		return headerShown;
+	}
+
+	/**
+	 * @return {@code true} if the top border of the first row is removed
+	 */
+	public boolean isTopBorderRemoved() {
+		return topBorderRemoved;
+	}
+
+	@Override
+	public String toString() {
+		return "TableState [yStart=" + yStart + ", headerShown=" + headerShown + ", topBorderRemoved="
+				+ topBorderRemoved + "]";
+	}
+}
@@ -0,0 +1,99 @@
+package be.quodlibet.boxable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * <p>
+ * Structure of a table which is filled with different values many times,
+ * e.g. one statement per customer. The header rows, the fixed rows and the
+ * style of the rows holding the values are prepared and measured once, so
+ * filling a table only lays out and draws the values.
+ * </p>
+ * <p>
+ * The template is built from a {@link Table} with the header rows and the
+ * rows drawn before the values, e.g. a legend, and a row created by
+ * {@link Table#createStreamedRow(float)} of the same table with one cell per
+ * column. The cells of that row give the widths and styles of the columns
+ * and their text is used for columns without a value. The model must not be
+ * changed once the template is created.
+ * </p>
+ * <p>
+ * The rows of the model are shared by the tables the template is applied
+ * to, like {@link Table#shareRows(Table)} does, so the template can be used
+ * on several threads at the same time and its cells should use fonts which
+ * aren't loaded into a document, like the standard 14 fonts.
+ * </p>
+ */
+public final class TableTemplate<T extends PDPage> {
+
+	private final Table<T> model;
+
+	private final Row<T> recordRow;
+
+	private final float recordRowHeight;
+
+	/**
+	 * @param model
+	 *            {@link Table} with the header and fixed rows
+	 * @param recordRow
+	 *            {@link Row} of the model giving the columns of the values
+	 * @throws IllegalArgumentException
+	 *             if the model has a {@link TableCell} or the row has a cell
+	 *             without text, like an {@link ImageCell}
+	 */
+	public TableTemplate(final Table<T> model, final Row<T> recordRow) {
+		checkArgument(!Table.hasTableCells(model.getRows()), "Rows with table cells can't be shared");
+		for (Cell<T> cell : recordRow.getCells()) {
+			checkArgument(!(cell instanceof ImageCell) && !(cell instanceof TableCell),
+					"Only text cells can be filled with values");
+		}
+		this.model = model;
+		this.recordRow = recordRow;
+		// the minimal height, before measuring the cells raises it
+		this.recordRowHeight = recordRow.height;
+		model.layout();
+		recordRow.layout();
+	}
+
+	/**
+	 * <p>
+	 * Adds the header and fixed rows of the template to the table, which
+	 * must not have any rows yet.
+	 * </p>
+	 *
+	 * @param table
+	 *            {@link Table} to fill, having the width of the model
+	 */
+	public void apply(final Table<T> table) {
+		checkArgument(table.getRows().isEmpty(), "The table already has rows");
+		table.addSharedRows(model);
+	}
+
+	/**
+	 * <p>
+	 * Adds a row with the given values to the table the template is applied
+	 * to.
+	 * </p>
+	 *
+	 * @param table
+	 *            {@link Table} passed to {@link #apply(Table)}
+	 * @param values
+	 *            One value per column, {@code null} to keep the text of the
+	 *            template
+	 * @return new {@link Row}
+	 */
+	public Row<T> addRow(final Table<T> table, final List<String> values) {
+		final List<Cell<T>> cells = recordRow.getCells();
+		checkArgument(values.size() == cells.size(), "Expected %s values, got %s", cells.size(), values.size());
+		final Row<T> row = table.createRow(recordRowHeight);
+		row.setLineSpacing(recordRow.getLineSpacing());
+		for (int i = 0; i < cells.size(); i++) {
+			row.createCell(cells.get(i), values.get(i));
+		}
+		return row;
+	}
+}
@@ -0,0 +1,72 @@
+package be.quodlibet.boxable.text;
+
+/**
+ * <p>
+ * Default {@link WrappingFunction} which allows a line break after whitespace
+ * and after any of the characters {@code - @ , . : ;}.
+ * </p>
+ * <p>
+ * Wrap points are found by a single scan over the text, without regular
+ * expressions and without creating substrings. The result is the same as
+ * splitting the text with {@code (?<=\s|-|@|,|\.|:|;)}.
+ * </p>
+ */
+public class DefaultWrappingFunction implements WrappingFunction, WrapPointFunction {
+
+	@Override
+	public int[] getWrapPoints(final String text) {
+		int count = 0;
+		for (int i = 1; i < text.length(); i++) {
+			if (isWrapAfter(text.charAt(i - 1))) {
+				count++;
+			}
+		}
+		final int[] wrapPoints = new int[count];
+		int index = 0;
+		for (int i = 1; index < count; i++) {
+			if (isWrapAfter(text.charAt(i - 1))) {
+				wrapPoints[index++] = i;
+			}
+		}
+		return wrapPoints;
+	}
+
+	@Override
+	public String[] getLines(final String text) {
+		final int[] wrapPoints = getWrapPoints(text);
+		final String[] lines = new String[wrapPoints.length + 1];
+		int start = 0;
+		for (int i = 0; i < wrapPoints.length; i++) {
+			lines[i] = text.substring(start, wrapPoints[i]);
+			start = wrapPoints[i];
+		}
+		lines[wrapPoints.length] = text.substring(start);
+		return lines;
+	}
+
+	/**
+	 * <p>
+	 * Checks whether a line may be wrapped after this character. Whitespace
+	 * is what {@code \s} matches in a regular expression.
+	 * </p>
+	 */
+	private static boolean isWrapAfter(final char c) {
+		switch (c) {
+		case ' ':
+		case '\t':
+		case '\n':
+		case '\u000B':
+		case '\f':
+		case '\r':
+		case '-':
+		case '@':
+		case ',':
+		case '.':
+		case ':':
+		case ';':
+			return true;
+		default:
+			return false;
+		}
+	}
+}
@@ -3,11 +3,29 @@ package be.quodlibet.boxable.text;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 import org.apache.pdfbox.pdmodel.font.PDFont;
 
+import be.quodlibet.boxable.utils.FontUtils;
+import be.quodlibet.boxable.utils.GlyphWidths;
+
 /**
+ * <p>
+ * Collects tokens of a line (or of the part of a line since the last wrap
+ * point) and keeps track of their width.
+ * </p>
+ * <p>
+ * Widths are accounted incrementally: every character is measured once when
+ * its token is pushed, so the cost of a layer is linear in the length of its
+ * text. Consecutive characters of the same font are summed up in glyph space
+ * and scaled once, exactly as {@link PDFont#getStringWidth(String)} would do
+ * for the whole run.
+ * </p>
+ * <p>
+ * A layer created with {@code measureOnly} only keeps track of widths and
+ * neither collects text nor tokens, which is all that is needed to measure a
+ * paragraph.
+ * </p>
  * 
  * @author Markus Kühne
  *
@@ -15,15 +33,27 @@ import org.apache.pdfbox.pdmodel.font.PDFont;
 
 public class PipelineLayer {
 
-	private final Pattern whitespace = Pattern.compile("(?:\r\n|\n\r|[ \t\n\r\\f])+\\z");
+	private final boolean measureOnly;
 
 	private final StringBuilder text = new StringBuilder();
 
-	private String lastTextToken = "";
+	private int textLength;
+
+	private Token lastTextToken;
+
+	private PDFont lastTextTokenFont;
+
+	private float lastTextTokenFontSize;
 
 	private List<Token> tokens = new ArrayList<>();
 
-	private String trimmedLastTextToken = "";
+	private int tokenCount;
+
+	/**
+	 * End of {@link #lastTextToken} within its source without trailing
+	 * whitespace
+	 */
+	private int trimmedLastTextTokenEnd;
 
 	private float width;
 
@@ -31,73 +61,126 @@ public class PipelineLayer {
 
 	private float widthTrimmedLastToken;
 
-	private float widthCurrentText;
+	/**
+	 * Width of {@link #text} up to the current font run
+	 */
+	private float widthClosedRuns;
+
+	/**
+	 * Font, font size and glyph space width of the current font run of
+	 * {@link #text}
+	 */
+	private PDFont runFont;
+
+	private float runFontSize;
+
+	private float runWidth;
+
+	public PipelineLayer() {
+		this(false);
+	}
+
+	/**
+	 * @param measureOnly
+	 *            {@code true} if the layer should only keep track of widths,
+	 *            without collecting text and tokens
+	 */
+	public PipelineLayer(final boolean measureOnly) {
+		this.measureOnly = measureOnly;
+	}
 
 	public boolean isEmpty() {
-		return tokens.isEmpty();
+		return tokenCount == 0;
 	}
 
 	public void push(final Token token) {
-		tokens.add(token);
+		if (!measureOnly) {
+			tokens.add(token);
+		}
+		tokenCount++;
 	}
 
 	public void push(final PDFont font, final float fontSize, final Token token) throws IOException {
 		if (token.getType().equals(TokenType.PADDING)) {
-			width += Float.parseFloat(token.getData());
+			width += token.getPadding();
 		}
 		if (token.getType().equals(TokenType.BULLET)) {
 			// just appending one space because our bullet width will be wide as one character of current font
-			text.append(token.getData());
-			width += (font.getStringWidth(token.getData()) / 1000f * fontSize);
+			appendText(token, font, fontSize);
+			width += (FontUtils.getGlyphWidths(font).getStringWidth(font, token.getData()) / 1000f * fontSize);
 		}
 
 		if (token.getType().equals(TokenType.ORDERING)) {
 			// just appending one space because our bullet width will be wide as one character of current font
-			text.append(token.getData());
-			width += (font.getStringWidth(token.getData()) / 1000f * fontSize);
+			appendText(token, font, fontSize);
+			width += (FontUtils.getGlyphWidths(font).getStringWidth(font, token.getData()) / 1000f * fontSize);
 		}
 
 		if (token.getType().equals(TokenType.TEXT)) {
-			text.append(lastTextToken);
+			appendText(lastTextToken, lastTextTokenFont, lastTextTokenFontSize);
 			width += widthLastToken;
-			lastTextToken = token.getData();
-			trimmedLastTextToken = whitespace.matcher(lastTextToken).replaceAll("");
-			widthLastToken = (font.getStringWidth(lastTextToken) / 1000f * fontSize);
-			widthTrimmedLastToken = (font.getStringWidth(trimmedLastTextToken) / 1000f * fontSize);
-			widthCurrentText = (font.getStringWidth(text.toString()) / 1000f * fontSize);
+			lastTextToken = token;
+			lastTextTokenFont = font;
+			lastTextTokenFontSize = fontSize;
+			measureLastTextToken();
 		}
 
 		push(token);
 	}
 
 	public void push(final PipelineLayer pipeline) {
-		text.append(lastTextToken);
+		appendText(lastTextToken, lastTextTokenFont, lastTextTokenFontSize);
 		width += widthLastToken;
-		text.append(pipeline.text);
-		if (pipeline.text.length() > 0) {
-			width += pipeline.widthCurrentText;
+		if (!measureOnly) {
+			text.append(pipeline.text);
+		}
+		textLength += pipeline.textLength;
+		if (pipeline.textLength > 0) {
+			final float pipelineTextWidth = pipeline.textWidth();
+			width += pipelineTextWidth;
+			widthClosedRuns = textWidth() + pipelineTextWidth;
+			runFont = null;
+			runWidth = 0.0f;
 		}
 		lastTextToken = pipeline.lastTextToken;
-		trimmedLastTextToken = pipeline.trimmedLastTextToken;
+		lastTextTokenFont = pipeline.lastTextTokenFont;
+		lastTextTokenFontSize = pipeline.lastTextTokenFontSize;
+		trimmedLastTextTokenEnd = pipeline.trimmedLastTextTokenEnd;
 		widthLastToken = pipeline.widthLastToken;
 		widthTrimmedLastToken = pipeline.widthTrimmedLastToken;
-		tokens.addAll(pipeline.tokens);
+		if (!measureOnly) {
+			tokens.addAll(pipeline.tokens);
+		}
+		tokenCount += pipeline.tokenCount;
 
 		pipeline.reset();
 	}
 
 	public void reset() {
 		text.delete(0, text.length());
+		textLength = 0;
 		width = 0.0f;
-		lastTextToken = "";
-		trimmedLastTextToken = "";
+		lastTextToken = null;
+		lastTextTokenFont = null;
+		lastTextTokenFontSize = 0.0f;
+		trimmedLastTextTokenEnd = 0;
 		widthLastToken = 0.0f;
 		widthTrimmedLastToken = 0.0f;
+		widthClosedRuns = 0.0f;
+		runFont = null;
+		runFontSize = 0.0f;
+		runWidth = 0.0f;
 		tokens.clear();
+		tokenCount = 0;
 	}
 
 	public String trimmedText() {
-		return text.toString() + trimmedLastTextToken;
+		checkNotMeasureOnly();
+		if (lastTextToken == null) {
+			return text.toString();
+		}
+		return new StringBuilder(text.length() + trimmedLastTextTokenEnd - lastTextToken.getStart()).append(text)
+				.append(lastTextToken.getSource(), lastTextToken.getStart(), trimmedLastTextTokenEnd).toString();
 	}
 
 	public float width() {
@@ -109,11 +192,100 @@ public class PipelineLayer {
 	}
 
 	public List<Token> tokens() {
+		checkNotMeasureOnly();
 		return new ArrayList<>(tokens);
 	}
 
+	/**
+	 * <p>
+	 * Appends the tokens of this layer to the given list, without copying
+	 * them into a list of their own like {@link #tokens()}.
+	 * </p>
+	 *
+	 * @param target
+	 *            The list the tokens will be appended to
+	 * @return number of appended tokens
+	 */
+	public int appendTokensTo(final List<Token> target) {
+		checkNotMeasureOnly();
+		target.addAll(tokens);
+		return tokens.size();
+	}
+
+	/**
+	 * <p>
+	 * Appends the characters of the token to {@link #text} and adds their
+	 * glyph widths to the current font run, starting a new run if the font
+	 * changes.
+	 * </p>
+	 */
+	private void appendText(final Token token, final PDFont font, final float fontSize) {
+		if (token == null || token.getStart() == token.getEnd()) {
+			return;
+		}
+		final String source = token.getSource();
+		if (!measureOnly) {
+			text.append(source, token.getStart(), token.getEnd());
+		}
+		textLength += token.getEnd() - token.getStart();
+		if (font != runFont || fontSize != runFontSize) {
+			widthClosedRuns = textWidth();
+			runFont = font;
+			runFontSize = fontSize;
+			runWidth = 0.0f;
+		}
+		final GlyphWidths glyphWidths = FontUtils.getGlyphWidths(font);
+		try {
+			runWidth += glyphWidths.getStringWidth(font, source, token.getStart(), token.getEnd());
+		} catch (final IOException e) {
+			throw new IllegalStateException("Unable to measure text with font " + font.getName(), e);
+		}
+	}
+
+	private void checkNotMeasureOnly() {
+		if (measureOnly) {
+			throw new IllegalStateException("Layer only measures and doesn't collect text or tokens");
+		}
+	}
+
+	private float textWidth() {
+		if (runFont == null) {
+			return widthClosedRuns;
+		}
+		return widthClosedRuns + runWidth / 1000f * runFontSize;
+	}
+
+	/**
+	 * <p>
+	 * Measures the last text token with and without its trailing whitespace in
+	 * a single pass.
+	 * </p>
+	 */
+	private void measureLastTextToken() throws IOException {
+		final String source = lastTextToken.getSource();
+		final int start = lastTextToken.getStart();
+		final int end = lastTextToken.getEnd();
+		int trimmedEnd = end;
+		while (trimmedEnd > start && isTrailingWhitespace(source.charAt(trimmedEnd - 1))) {
+			trimmedEnd--;
+		}
+		final GlyphWidths glyphWidths = FontUtils.getGlyphWidths(lastTextTokenFont);
+		final float trimmedGlyphWidth = glyphWidths.getStringWidth(lastTextTokenFont, source, start, trimmedEnd);
+		float glyphWidth = trimmedGlyphWidth;
+		for (int i = trimmedEnd; i < end; i++) {
+			glyphWidth += glyphWidths.getWidth(lastTextTokenFont, source.charAt(i));
+		}
+		trimmedLastTextTokenEnd = trimmedEnd;
+		widthLastToken = glyphWidth / 1000f * lastTextTokenFontSize;
+		widthTrimmedLastToken = trimmedGlyphWidth / 1000f * lastTextTokenFontSize;
+	}
+
+	private static boolean isTrailingWhitespace(final char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+	}
+
 	@Override
 	public String toString() {
-		return text.toString() + "(" + lastTextToken + ") [width: " + width() + ", trimmed: " + trimmedWidth() + "]";
+		return text.toString() + "(" + (lastTextToken == null ? "" : lastTextToken.getData()) + ") [width: " + width() + ", trimmed: " + trimmedWidth() + "]";
 	}
 }
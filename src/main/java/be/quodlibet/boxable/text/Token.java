@@ -1,26 +1,160 @@
 package be.quodlibet.boxable.text;
 
+/**
+ * <p>
+ * Single token of a text produced by the {@link Tokenizer} or by the line
+ * layout of a paragraph.
+ * </p>
+ * <p>
+ * Text tokens only reference a range of their source string and create their
+ * data lazily, paddings keep their width as a {@code float} and tags are
+ * shared singletons, so that reading tokens doesn't require a new
+ * {@link String} per token.
+ * </p>
+ */
 public class Token {
 
+	public static final Token OPEN_BOLD = new Token(TokenType.OPEN_TAG, "b");
+
+	public static final Token OPEN_ITALIC = new Token(TokenType.OPEN_TAG, "i");
+
+	public static final Token OPEN_ORDERED_LIST = new Token(TokenType.OPEN_TAG, "ol");
+
+	public static final Token OPEN_UNORDERED_LIST = new Token(TokenType.OPEN_TAG, "ul");
+
+	public static final Token CLOSE_BOLD = new Token(TokenType.CLOSE_TAG, "b");
+
+	public static final Token CLOSE_ITALIC = new Token(TokenType.CLOSE_TAG, "i");
+
+	public static final Token CLOSE_PARAGRAPH = new Token(TokenType.CLOSE_TAG, "p");
+
+	public static final Token CLOSE_ORDERED_LIST = new Token(TokenType.CLOSE_TAG, "ol");
+
+	public static final Token CLOSE_UNORDERED_LIST = new Token(TokenType.CLOSE_TAG, "ul");
+
+	public static final Token CLOSE_LIST_ELEMENT = new Token(TokenType.CLOSE_TAG, "li");
+
+	public static final Token LINE_BREAK = new Token(TokenType.WRAP_POINT, "br");
+
+	public static final Token PARAGRAPH = new Token(TokenType.WRAP_POINT, "p");
+
+	public static final Token LIST_ELEMENT = new Token(TokenType.WRAP_POINT, "li");
+
 	private final TokenType type;
-	
-	private final String data;
+
+	private String data;
+
+	private final String source;
+
+	private final int start;
+
+	private final int end;
+
+	private float padding = Float.NaN;
 
 	public Token(TokenType type, String data) {
 		this.type = type;
 		this.data = data;
+		this.source = data;
+		this.start = 0;
+		this.end = data == null ? 0 : data.length();
+	}
+
+	private Token(TokenType type, String source, int start, int end) {
+		this.type = type;
+		this.source = source;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * <p>
+	 * Creates a {@link TokenType#TEXT} token for the characters {@code start}
+	 * (inclusive) to {@code end} (exclusive) of the source.
+	 * </p>
+	 *
+	 * @param source
+	 *            The text containing the token
+	 * @param start
+	 *            Index of the first character
+	 * @param end
+	 *            Index after the last character
+	 * @return text {@link Token}
+	 */
+	public static Token text(String source, int start, int end) {
+		return new Token(TokenType.TEXT, source, start, end);
+	}
+
+	/**
+	 * <p>
+	 * Creates a {@link TokenType#PADDING} token.
+	 * </p>
+	 *
+	 * @param width
+	 *            Padding width
+	 * @return padding {@link Token}
+	 */
+	public static Token padding(float width) {
+		final Token token = new Token(TokenType.PADDING, null, 0, 0);
+		token.padding = width;
+		return token;
+	}
+
+	static Token possibleWrapPoint(String source, int index) {
+		return new Token(TokenType.POSSIBLE_WRAP_POINT, source, index, index);
 	}
-	
+
 	public String getData() {
+		if (data == null) {
+			if (type == TokenType.PADDING) {
+				data = String.valueOf(padding);
+			} else if (type == TokenType.POSSIBLE_WRAP_POINT) {
+				data = String.valueOf(start);
+			} else if (source != null) {
+				data = source.substring(start, end);
+			}
+		}
 		return data;
 	}
-	
+
 	public TokenType getType() {
 		return type;
 	}
-	
+
+	/**
+	 * @return width of a {@link TokenType#PADDING} token
+	 */
+	public float getPadding() {
+		if (Float.isNaN(padding)) {
+			padding = Float.parseFloat(getData());
+		}
+		return padding;
+	}
+
+	/**
+	 * @return string whose range {@link #getStart()} to {@link #getEnd()}
+	 *         holds the characters of this token
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * @return index of the first character within {@link #getSource()}
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * @return index after the last character within {@link #getSource()}
+	 */
+	public int getEnd() {
+		return end;
+	}
+
 	@Override
 	public String toString() {
-		return getClass().getSimpleName() + "[" + type + "/" + data + "]";
+		return getClass().getSimpleName() + "[" + type + "/" + getData() + "]";
 	}
 }
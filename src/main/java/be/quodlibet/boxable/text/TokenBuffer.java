@@ -0,0 +1,150 @@
+package be.quodlibet.boxable.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Packed sequence of tokens of a single source string, as produced by
+ * {@link Tokenizer#tokenizeToBuffer(String, WrappingFunction)}.
+ * </p>
+ * <p>
+ * Tokens are kept in parallel arrays holding their type and their start and
+ * end offset into the source, tags refer to the shared {@link Token}
+ * singletons. {@link Token} objects are only created on request by
+ * {@link #getToken(int)}.
+ * </p>
+ */
+public final class TokenBuffer {
+
+	private static final TokenType[] TYPES = TokenType.values();
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final String source;
+
+	private int size;
+
+	private int[] types = new int[INITIAL_CAPACITY];
+
+	private int[] starts = new int[INITIAL_CAPACITY];
+
+	private int[] ends = new int[INITIAL_CAPACITY];
+
+	private Token[] tags = new Token[INITIAL_CAPACITY];
+
+	TokenBuffer(final String source) {
+		this.source = source;
+	}
+
+	void addText(final int start, final int end) {
+		add(TokenType.TEXT, start, end, null);
+	}
+
+	void addPossibleWrapPoint(final int index) {
+		add(TokenType.POSSIBLE_WRAP_POINT, index, index, null);
+	}
+
+	void addTag(final Token tag, final int start, final int end) {
+		add(tag.getType(), start, end, tag);
+	}
+
+	private void add(final TokenType type, final int start, final int end, final Token tag) {
+		if (size == types.length) {
+			final int capacity = size * 2;
+			types = Arrays.copyOf(types, capacity);
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			tags = Arrays.copyOf(tags, capacity);
+		}
+		types[size] = type.ordinal();
+		starts[size] = start;
+		ends[size] = end;
+		tags[size] = tag;
+		size++;
+	}
+
+	/**
+	 * @return source string of all tokens
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * @return number of tokens
+	 */
+	public int size() {
+		return size;
+	}
+
+	public TokenType getType(final int index) {
+		return TYPES[types[index]];
+	}
+
+	/**
+	 * <p>
+	 * Retrieves the index of the first character of the token within the
+	 * source. For tags this is the position of their {@code '<'}, for possible
+	 * wrap points the offset of the wrap point.
+	 * </p>
+	 *
+	 * @param index
+	 *            Index of the token
+	 * @return start offset into {@link #getSource()}
+	 */
+	public int getStart(final int index) {
+		return starts[index];
+	}
+
+	/**
+	 * @param index
+	 *            Index of the token
+	 * @return offset after the last character of the token within
+	 *         {@link #getSource()}
+	 */
+	public int getEnd(final int index) {
+		return ends[index];
+	}
+
+	/**
+	 * @param index
+	 *            Index of the token
+	 * @return shared tag {@link Token} or {@code null} if the token isn't a tag
+	 */
+	public Token getTag(final int index) {
+		return tags[index];
+	}
+
+	/**
+	 * <p>
+	 * Retrieves the token as {@link Token}, which is a shared singleton for
+	 * tags and a new instance referencing the source for all other tokens.
+	 * </p>
+	 *
+	 * @param index
+	 *            Index of the token
+	 * @return {@link Token} at the given index
+	 */
+	public Token getToken(final int index) {
+		if (tags[index] != null) {
+			return tags[index];
+		}
+		if (getType(index) == TokenType.POSSIBLE_WRAP_POINT) {
+			return Token.possibleWrapPoint(source, starts[index]);
+		}
+		return Token.text(source, starts[index], ends[index]);
+	}
+
+	/**
+	 * @return all tokens as a list of {@link Token}s
+	 */
+	public List<Token> toList() {
+		final List<Token> tokens = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			tokens.add(getToken(i));
+		}
+		return tokens;
+	}
+}
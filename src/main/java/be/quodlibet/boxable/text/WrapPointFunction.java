@@ -0,0 +1,29 @@
+package be.quodlibet.boxable.text;
+
+/**
+ * <p>
+ * Alternative contract to {@link WrappingFunction} which reports possible wrap
+ * points as offsets into the text instead of splitting it into substrings.
+ * </p>
+ * <p>
+ * A {@link WrappingFunction} may additionally implement this interface, in
+ * which case the {@link Tokenizer} uses {@link #getWrapPoints(String)} and
+ * never calls {@link WrappingFunction#getLines(String)}. Functions implementing
+ * only {@link WrappingFunction} keep working through
+ * {@link WrappingFunctionAdapter}.
+ * </p>
+ */
+public interface WrapPointFunction {
+
+	/**
+	 * <p>
+	 * Retrieves the offsets at which a new line may start.
+	 * </p>
+	 *
+	 * @param text
+	 *            The text to be wrapped
+	 * @return offsets in ascending order, each greater than zero and less than
+	 *         the length of the text
+	 */
+	int[] getWrapPoints(String text);
+}
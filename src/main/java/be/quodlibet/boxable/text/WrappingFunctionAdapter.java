@@ -0,0 +1,46 @@
+package be.quodlibet.boxable.text;
+
+/**
+ * <p>
+ * Adapts a {@link WrappingFunction} to the {@link WrapPointFunction} contract
+ * by subtracting the lengths of the lines it returns from the end of the
+ * text.
+ * </p>
+ */
+public final class WrappingFunctionAdapter implements WrapPointFunction {
+
+	private final WrappingFunction wrappingFunction;
+
+	private WrappingFunctionAdapter(final WrappingFunction wrappingFunction) {
+		this.wrappingFunction = wrappingFunction;
+	}
+
+	/**
+	 * <p>
+	 * Retrieves a {@link WrapPointFunction} for the given function, which is
+	 * the function itself if it already implements {@link WrapPointFunction}.
+	 * </p>
+	 *
+	 * @param wrappingFunction
+	 *            The function to be adapted
+	 * @return {@link WrapPointFunction} reporting the same wrap points
+	 */
+	public static WrapPointFunction of(final WrappingFunction wrappingFunction) {
+		if (wrappingFunction instanceof WrapPointFunction) {
+			return (WrapPointFunction) wrappingFunction;
+		}
+		return new WrappingFunctionAdapter(wrappingFunction);
+	}
+
+	@Override
+	public int[] getWrapPoints(final String text) {
+		final String[] lines = wrappingFunction.getLines(text);
+		final int[] wrapPoints = new int[Math.max(lines.length - 1, 0)];
+		int offset = text.length();
+		for (int i = wrapPoints.length - 1; i >= 0; i--) {
+			offset -= lines[i + 1].length();
+			wrapPoints[i] = offset;
+		}
+		return wrapPoints;
+	}
+}
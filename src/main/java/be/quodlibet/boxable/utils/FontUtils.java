@@ -1,6 +1,7 @@
 package be.quodlibet.boxable.utils;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -10,6 +11,11 @@ import org.apache.pdfbox.pdmodel.font.PDType0Font;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+
 /**
  * <p>
  * Utility methods for fonts
@@ -36,15 +42,49 @@ public final class FontUtils {
 		}
 	}
 	
+	private static final int MAX_FONT_METRICS = 256;
+
 	/**
 	 * <p>
-	 * {@link HashMap} for caching {@link FontMetrics} for designated
-	 * {@link PDFont} because {@link FontUtils#getHeight(PDFont, float)} is
-	 * expensive to calculate and the results are only approximate.
+	 * Cache of {@link FontMetrics} for designated {@link PDFont} because
+	 * {@link FontUtils#getHeight(PDFont, float)} is expensive to calculate and
+	 * the results are only approximate. Fonts are compared by identity, as
+	 * different fonts may have the same name, and the metrics are computed
+	 * only once per font even if cells are laid out on several threads at
+	 * once.
+	 * </p>
 	 */
-	private static final Map<String, FontMetrics> fontMetrics = new HashMap<>();
+	private static final LoadingCache<PDFont, FontMetrics> fontMetrics = CacheBuilder.newBuilder().weakKeys()
+			.maximumSize(MAX_FONT_METRICS).recordStats().build(new CacheLoader<PDFont, FontMetrics>() {
+				@Override
+				public FontMetrics load(final PDFont font) {
+					return createFontMetrics(font);
+				}
+			});
 	
-	private static final Map<String, PDFont> defaultFonts = new HashMap<>();
+	/**
+	 * <p>
+	 * Default fonts of all documents, replaced by the ones of the render
+	 * context of each table.
+	 * </p>
+	 */
+	private static final Map<String, PDFont> defaultFonts = Collections.synchronizedMap(new HashMap<String, PDFont>());
+
+	/**
+	 * <p>
+	 * {@link GlyphWidths} for each {@link PDFont}. Fonts are compared by
+	 * identity, and a loaded font belongs to one {@link PDDocument}, so each
+	 * font of each document gets its own table. Entries are dropped together
+	 * with their font.
+	 * </p>
+	 */
+	private static final LoadingCache<PDFont, GlyphWidths> glyphWidths = CacheBuilder.newBuilder().weakKeys()
+			.build(new CacheLoader<PDFont, GlyphWidths>() {
+				@Override
+				public GlyphWidths load(final PDFont font) {
+					return new GlyphWidths();
+				}
+			});
 	
 
 	private FontUtils() {
@@ -89,13 +129,57 @@ public final class FontUtils {
 	 */
 	public static float getStringWidth(final PDFont font, final String text, final float fontSize) {
 		try {
-			return font.getStringWidth(text) / 1000 * fontSize;
+			return getGlyphWidths(font).getStringWidth(font, text) / 1000 * fontSize;
+		} catch (final IOException e) {
+			// turn into runtime exception
+			throw new IllegalStateException("Unable to determine text width", e);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Retrieving the width of the characters {@code start} (inclusive) to
+	 * {@code end} (exclusive) of the text depending on current font size,
+	 * without creating a substring.
+	 * </p>
+	 *
+	 * @param font
+	 *            The font of text whose width will be retrieved
+	 * @param text
+	 *            The text whose width will be retrieved
+	 * @param start
+	 *            Index of the first character
+	 * @param end
+	 *            Index after the last character
+	 * @param fontSize
+	 *            The font size of text whose width will be retrieved
+	 * @return text width
+	 */
+	public static float getStringWidth(final PDFont font, final CharSequence text, final int start, final int end,
+			final float fontSize) {
+		try {
+			return getGlyphWidths(font).getStringWidth(font, text, start, end) / 1000 * fontSize;
 		} catch (final IOException e) {
 			// turn into runtime exception
 			throw new IllegalStateException("Unable to determine text width", e);
 		}
 	}
 
+	/**
+	 * <p>
+	 * Retrieves the cached {@link GlyphWidths} of the font, which should be
+	 * used instead of {@link PDFont#getStringWidth(String)} wherever text is
+	 * measured.
+	 * </p>
+	 * 
+	 * @param font
+	 *            The font whose glyph widths will be retrieved
+	 * @return {@link GlyphWidths} of the font
+	 */
+	public static GlyphWidths getGlyphWidths(final PDFont font) {
+		return glyphWidths.getUnchecked(font);
+	}
+
 	/**
 	 * <p>
 	 * Calculate the font ascent distance.
@@ -108,12 +192,7 @@ public final class FontUtils {
 	 * @return Positive font ascent distance
 	 */
 	public static float getAscent(final PDFont font, final float fontSize) {
-		final String fontName = font.getName();
-		if (!fontMetrics.containsKey(fontName)) {
-			createFontMetrics(font);
-		}
-
-		return fontMetrics.get(fontName).ascent * fontSize;
+		return fontMetrics.getUnchecked(font).ascent * fontSize;
 	}
 
 	/**
@@ -128,12 +207,7 @@ public final class FontUtils {
 	 * @return Negative font descent distance
 	 */
 	public static float getDescent(final PDFont font, final float fontSize) {
-		final String fontName = font.getName();
-		if (!fontMetrics.containsKey(fontName)) {
-			createFontMetrics(font);
-		}
-
-		return fontMetrics.get(fontName).descent * fontSize;
+		return fontMetrics.getUnchecked(font).descent * fontSize;
 	}
 
 	/**
@@ -148,12 +222,7 @@ public final class FontUtils {
 	 * @return {@link PDFont}'s height
 	 */
 	public static float getHeight(final PDFont font, final float fontSize) {
-		final String fontName = font.getName();
-		if (!fontMetrics.containsKey(fontName)) {
-			createFontMetrics(font);
-		}
-
-		return fontMetrics.get(fontName).height * fontSize;
+		return fontMetrics.getUnchecked(font).height * fontSize;
 	}
 
 	/**
@@ -163,19 +232,46 @@ public final class FontUtils {
 	 * 
 	 * @param font
 	 *            The font from which calculation will be applied
+	 * @return {@link FontMetrics} of the font
 <<<<<<< HEAD
 	 * @throws IOException
 	 *             If reading the font file fails
 =======
 >>>>>>> using FreeSans as default font and added new free fonts
 	 */
-	private static void createFontMetrics(final PDFont font) {
+	private static FontMetrics createFontMetrics(final PDFont font) {
 		final float base = font.getFontDescriptor().getXHeight() / 1000;
 		final float ascent = font.getFontDescriptor().getAscent() / 1000 - base;
 		final float descent = font.getFontDescriptor().getDescent() / 1000;
-		fontMetrics.put(font.getName(), new FontMetrics(base + ascent - descent, ascent, descent));
+		return new FontMetrics(base + ascent - descent, ascent, descent);
+	}
+
+	/**
+	 * <p>
+	 * Retrieves the statistics of the font metrics cache used by
+	 * {@link #getAscent(PDFont, float)}, {@link #getDescent(PDFont, float)}
+	 * and {@link #getHeight(PDFont, float)}, e.g. its hit and miss counts.
+	 * </p>
+	 *
+	 * @return {@link CacheStats} of the font metrics cache
+	 */
+	public static CacheStats getFontMetricsStats() {
+		return fontMetrics.stats();
 	}
 	
+	/**
+	 * @deprecated Fonts belong to a single document, set the default fonts
+	 *             of the render context of the table instead
+	 * @param font
+	 *            font of the text
+	 * @param fontBold
+	 *            font of bold text and header cells
+	 * @param fontItalic
+	 *            font of italic text
+	 * @param fontBoldItalic
+	 *            font of bold italic text
+	 */
+	@Deprecated
 	public static void addDefaultFonts(final PDFont font,final PDFont fontBold,final PDFont fontItalic,final PDFont fontBoldItalic) {
 		defaultFonts.put("font", font);
 		defaultFonts.put("fontBold", fontBold);
@@ -183,10 +279,23 @@ public final class FontUtils {
 		defaultFonts.put("fontBoldItalic", fontBoldItalic);
 	}
 	
+	/**
+	 * @deprecated Use the default fonts of the render context of the table
+	 *             instead
+	 * @return default fonts of all documents
+	 */
+	@Deprecated
 	public static Map<String, PDFont> getDefaultfonts() {
 		return defaultFonts;
 	}
 	
+	/**
+	 * @deprecated The fonts can't be used by other documents, set them as
+	 *             default fonts of the render context of the table instead
+	 * @param document
+	 *            {@link PDDocument} where fonts will be loaded
+	 */
+	@Deprecated
 	public static void setSansFontsAsDefault(PDDocument document){
 		defaultFonts.put("font", loadFont(document, "fonts/FreeSans.ttf"));
 		defaultFonts.put("fontBold", loadFont(document, "fonts/FreeSansBold.ttf"));
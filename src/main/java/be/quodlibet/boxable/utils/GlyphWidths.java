@@ -0,0 +1,145 @@
+package be.quodlibet.boxable.utils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * <p>
+ * Lazily filled table of glyph advance widths for a single {@link PDFont}.
+ * </p>
+ * <p>
+ * The table doesn't keep its font, which is passed into every call instead and
+ * must always be the same one. This way a cache keyed weakly by the font never
+ * keeps the font alive through its table.
+ * </p>
+ * <p>
+ * {@link PDFont#getStringWidth(String)} encodes the whole string and looks up
+ * every code again on each call, which is expensive for {@code PDType0Font}s.
+ * This table asks the font only once per code point and afterwards measuring a
+ * text costs an array load per character. Code points of the basic
+ * multilingual plane are kept in pages of 256 entries, all others in a map.
+ * </p>
+ * <p>
+ * Widths are given in 1/1000 units of text space, exactly as
+ * {@link PDFont#getStringWidth(String)} returns them, and are summed up in the
+ * same order so both methods produce identical results. Instances are
+ * obtained through {@link FontUtils#getGlyphWidths(PDFont)}.
+ * </p>
+ * <p>
+ * The table may be used by several threads at once. The font itself is only
+ * asked while holding its lock, and threads racing for the same code point at
+ * worst measure it twice.
+ * </p>
+ */
+public final class GlyphWidths {
+
+	private static final int PAGE_BITS = 8;
+
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	/**
+	 * Pages of the basic multilingual plane, where a width of zero means "not
+	 * yet known" (zero width glyphs are simply measured again).
+	 */
+	private final float[][] pages = new float[(Character.MAX_VALUE + 1) >> PAGE_BITS][];
+
+	private final Map<Integer, Float> supplementary = new ConcurrentHashMap<>();
+
+	GlyphWidths() {
+	}
+
+	/**
+	 * <p>
+	 * Retrieves the advance width of a single code point.
+	 * </p>
+	 *
+	 * @param font
+	 *            The font of this table
+	 * @param codePoint
+	 *            The code point whose width will be retrieved
+	 * @return width in 1/1000 units of text space
+	 * @throws IOException
+	 *             If the font cannot be read
+	 */
+	public float getWidth(final PDFont font, final int codePoint) throws IOException {
+		if (codePoint <= Character.MAX_VALUE) {
+			float[] page = pages[codePoint >> PAGE_BITS];
+			if (page == null) {
+				page = new float[PAGE_SIZE];
+				pages[codePoint >> PAGE_BITS] = page;
+			}
+			float width = page[codePoint & PAGE_MASK];
+			if (width == 0) {
+				width = measure(font, codePoint);
+				page[codePoint & PAGE_MASK] = width;
+			}
+			return width;
+		}
+		Float width = supplementary.get(codePoint);
+		if (width == null) {
+			width = measure(font, codePoint);
+			supplementary.put(codePoint, width);
+		}
+		return width;
+	}
+
+	/**
+	 * <p>
+	 * Retrieves the width of the whole text.
+	 * </p>
+	 *
+	 * @param font
+	 *            The font of this table
+	 * @param text
+	 *            The text whose width will be retrieved
+	 * @return width in 1/1000 units of text space
+	 * @throws IOException
+	 *             If the font cannot be read
+	 */
+	public float getStringWidth(final PDFont font, final CharSequence text) throws IOException {
+		return getStringWidth(font, text, 0, text.length());
+	}
+
+	/**
+	 * <p>
+	 * Retrieves the width of the characters {@code start} (inclusive) to
+	 * {@code end} (exclusive) of the text.
+	 * </p>
+	 *
+	 * @param font
+	 *            The font of this table
+	 * @param text
+	 *            The text whose width will be retrieved
+	 * @param start
+	 *            Index of the first character
+	 * @param end
+	 *            Index after the last character
+	 * @return width in 1/1000 units of text space
+	 * @throws IOException
+	 *             If the font cannot be read
+	 */
+	public float getStringWidth(final PDFont font, final CharSequence text, final int start, final int end) throws IOException {
+		float width = 0;
+		for (int i = start; i < end; i++) {
+			final char c = text.charAt(i);
+			if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+				width += getWidth(font, Character.toCodePoint(c, text.charAt(++i)));
+			} else {
+				width += getWidth(font, c);
+			}
+		}
+		return width;
+	}
+
+	private static float measure(final PDFont font, final int codePoint) throws IOException {
+		// fonts cache their widths in unsynchronized maps
+		synchronized (font) {
+			return font.getStringWidth(new String(Character.toChars(codePoint)));
+		}
+	}
+}
@@ -92,6 +92,41 @@ public final class PDStreamUtils {
 		}
 	}
 
+	/**
+	 * <p>
+	 * Draws a rectangle like {@link #rect(PDPageContentStream, float, float, float, float, Color)},
+	 * leaving out the color changes which are redundant.
+	 * </p>
+	 * 
+	 * @param stream
+	 *            The {@link TrackingContentStream} where drawing will be applied.
+	 * @param x
+	 *            Start X coordinate for rectangle.
+	 * @param y
+	 *            Start Y coordinate for rectangle.
+	 * @param width
+	 *            Width of rectangle
+	 * @param height
+	 *            Height of rectangle
+	 * @param color
+	 *            Color of the text
+	 */
+	public static void rect(final TrackingContentStream stream, final float x, final float y, final float width,
+			final float height, final Color color) {
+		try {
+			stream.setNonStrokingColor(color);
+			// negative height because we want to draw down (not up!)
+			stream.addRect(x, y, width, -height);
+			stream.fill();
+			stream.closePath();
+
+			// Reset NonStroking Color to default value
+			stream.setNonStrokingColor(Color.BLACK);
+		} catch (final IOException e) {
+			throw new IllegalStateException("Unable to draw rectangle", e);
+		}
+	}
+
 	/**
 	 * <p>
 	 * Provides ability to draw font metrics (font height, font ascent, font
@@ -143,4 +178,26 @@ public final class PDStreamUtils {
 			stream.setLineDashPattern(new float[] {}, 0.0f);
 		}
 	}
+	/**
+	 * <p>
+	 * Sets the line styles like {@link #setLineStyles(PDPageContentStream, LineStyle)},
+	 * only writing the ones which differ from the current ones.
+	 * </p>
+	 * 
+	 * @param stream
+	 *            The {@link TrackingContentStream} where drawing will be applied.
+	 * @param line
+	 *            The {@link LineStyle} that would be applied
+	 */
+	public static void setLineStyles(final TrackingContentStream stream, final LineStyle line) {
+		stream.setNonStrokingColor(line.getColor());
+		stream.setStrokingColor(line.getColor());
+		stream.setLineWidth(line.getWidth());
+		stream.setLineCapStyle(0);
+		if (line.getDashArray() != null) {
+			stream.setLineDashPattern(line.getDashArray(), line.getDashPhase());
+		} else {
+			stream.setLineDashPattern(new float[] {}, 0.0f);
+		}
+	}
 }
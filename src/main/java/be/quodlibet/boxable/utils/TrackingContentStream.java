@@ -0,0 +1,250 @@
+package be.quodlibet.boxable.utils;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.util.Matrix;
+
+/**
+ * <p>
+ * Wrapper of a {@link PDPageContentStream} which knows the current graphics
+ * state and leaves out operators that wouldn't change it.
+ * </p>
+ * <p>
+ * Colors, line width, line cap style and dash pattern are only written when
+ * something is painted with them: just before a path or a text object begins,
+ * text is shown, the wrapped stream is handed out or the stream is closed. A
+ * color set and reset around every fill therefore costs nothing as long as
+ * the next fill uses the same color again. Fonts are written right away,
+ * unless the same font and size are already set.
+ * </p>
+ * <p>
+ * Anything changing the graphics state through {@link #getStream()} must be
+ * followed by {@link #forgetState()}, so the next change is written in any
+ * case.
+ * </p>
+ */
+public final class TrackingContentStream {
+
+	private final PDPageContentStream stream;
+
+	// state as written into the stream, null when unknown
+	private Color strokingColor;
+	private Color nonStrokingColor;
+	private Float lineWidth;
+	private Integer lineCapStyle;
+	private float[] dashArray;
+	private float dashPhase;
+	private PDFont font;
+	private float fontSize;
+
+	// state set since the last painting, null when unchanged
+	private Color nextStrokingColor;
+	private Color nextNonStrokingColor;
+	private Float nextLineWidth;
+	private Integer nextLineCapStyle;
+	private float[] nextDashArray;
+	private float nextDashPhase;
+
+	/**
+	 * @param stream
+	 *            {@link PDPageContentStream} to write to, with an unknown
+	 *            graphics state
+	 */
+	public TrackingContentStream(final PDPageContentStream stream) {
+		this.stream = stream;
+	}
+
+	/**
+	 * <p>
+	 * Gives the wrapped stream with the state set so far written, e.g. to
+	 * draw an image.
+	 * </p>
+	 *
+	 * @return the wrapped {@link PDPageContentStream}
+	 * @throws IOException
+	 *             If writing to the stream fails
+	 */
+	public PDPageContentStream getStream() throws IOException {
+		writeState();
+		return stream;
+	}
+
+	/**
+	 * <p>
+	 * Forgets the graphics state after it was changed through
+	 * {@link #getStream()}.
+	 * </p>
+	 */
+	public void forgetState() {
+		strokingColor = null;
+		nonStrokingColor = null;
+		lineWidth = null;
+		lineCapStyle = null;
+		dashArray = null;
+		font = null;
+	}
+
+	public void setStrokingColor(final Color color) {
+		nextStrokingColor = color;
+	}
+
+	public void setNonStrokingColor(final Color color) {
+		nextNonStrokingColor = color;
+	}
+
+	public void setLineWidth(final float lineWidth) {
+		nextLineWidth = lineWidth;
+	}
+
+	public void setLineCapStyle(final int lineCapStyle) {
+		if (lineCapStyle < 0 || lineCapStyle > 2) {
+			throw new IllegalArgumentException("Error: unknown value for line cap style");
+		}
+		nextLineCapStyle = lineCapStyle;
+	}
+
+	public void setLineDashPattern(final float[] pattern, final float phase) {
+		nextDashArray = pattern.clone();
+		nextDashPhase = phase;
+	}
+
+	public void setFont(final PDFont font, final float fontSize) throws IOException {
+		if (font != this.font || fontSize != this.fontSize) {
+			stream.setFont(font, fontSize);
+			this.font = font;
+			this.fontSize = fontSize;
+		}
+	}
+
+	public void beginText() throws IOException {
+		writeState();
+		stream.beginText();
+	}
+
+	public void setTextMatrix(final Matrix matrix) throws IOException {
+		stream.setTextMatrix(matrix);
+	}
+
+	public void newLineAtOffset(final float tx, final float ty) throws IOException {
+		stream.newLineAtOffset(tx, ty);
+	}
+
+	public void showText(final String text) throws IOException {
+		writeState();
+		stream.showText(text);
+	}
+
+	public void endText() throws IOException {
+		stream.endText();
+	}
+
+	public void moveTo(final float x, final float y) throws IOException {
+		writeState();
+		stream.moveTo(x, y);
+	}
+
+	public void lineTo(final float x, final float y) throws IOException {
+		stream.lineTo(x, y);
+	}
+
+	public void addRect(final float x, final float y, final float width, final float height) throws IOException {
+		writeState();
+		stream.addRect(x, y, width, height);
+	}
+
+	public void stroke() throws IOException {
+		stream.stroke();
+	}
+
+	public void fill() throws IOException {
+		stream.fill();
+	}
+
+	public void closePath() throws IOException {
+		stream.closePath();
+	}
+
+	public void drawForm(final PDFormXObject form) throws IOException {
+		writeState();
+		stream.drawForm(form);
+	}
+
+	/**
+	 * <p>
+	 * Appends operators written into another content stream, like the one of
+	 * a page rendered on its own. The state of this stream is unknown
+	 * afterwards.
+	 * </p>
+	 *
+	 * @param commands
+	 *            The operators to append
+	 * @throws IOException
+	 *             If writing to the stream fails
+	 */
+	// PDFBox 2.0 deprecates all raw commands without offering another way to
+	// copy finished operators, so this is the only place using them
+	@SuppressWarnings("deprecation")
+	public void appendRawCommands(final byte[] commands) throws IOException {
+		writeState();
+		stream.appendRawCommands(commands);
+		forgetState();
+	}
+
+	/**
+	 * <p>
+	 * Writes the state set last, as content appended to the page later may
+	 * rely on it, and closes the wrapped stream.
+	 * </p>
+	 *
+	 * @throws IOException
+	 *             If writing to the stream fails
+	 */
+	public void close() throws IOException {
+		writeState();
+		stream.close();
+	}
+
+	private void writeState() throws IOException {
+		if (nextStrokingColor != null) {
+			if (!nextStrokingColor.equals(strokingColor)) {
+				stream.setStrokingColor(nextStrokingColor);
+				strokingColor = nextStrokingColor;
+			}
+			nextStrokingColor = null;
+		}
+		if (nextNonStrokingColor != null) {
+			if (!nextNonStrokingColor.equals(nonStrokingColor)) {
+				stream.setNonStrokingColor(nextNonStrokingColor);
+				nonStrokingColor = nextNonStrokingColor;
+			}
+			nextNonStrokingColor = null;
+		}
+		if (nextLineWidth != null) {
+			if (!nextLineWidth.equals(lineWidth)) {
+				stream.setLineWidth(nextLineWidth);
+				lineWidth = nextLineWidth;
+			}
+			nextLineWidth = null;
+		}
+		if (nextLineCapStyle != null) {
+			if (!nextLineCapStyle.equals(lineCapStyle)) {
+				stream.setLineCapStyle(nextLineCapStyle);
+				lineCapStyle = nextLineCapStyle;
+			}
+			nextLineCapStyle = null;
+		}
+		if (nextDashArray != null) {
+			if (dashArray == null || !Arrays.equals(nextDashArray, dashArray) || nextDashPhase != dashPhase) {
+				stream.setLineDashPattern(nextDashArray, nextDashPhase);
+				dashArray = nextDashArray;
+				dashPhase = nextDashPhase;
+			}
+			nextDashArray = null;
+		}
+	}
+}
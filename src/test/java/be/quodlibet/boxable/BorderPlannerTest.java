@@ -0,0 +1,40 @@
+package be.quodlibet.boxable;
+
+import static be.quodlibet.boxable.utils.TestContentStream.count;
+
+import java.awt.Color;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import be.quodlibet.boxable.line.LineStyle;
+import be.quodlibet.boxable.utils.TestContentStream;
+
+public class BorderPlannerTest {
+
+	@Test
+	public void testCollinearBordersAreMerged() throws Exception {
+		try (TestContentStream page = new TestContentStream()) {
+			final LineStyle solid = new LineStyle(Color.BLACK, 1);
+			final LineStyle dotted = LineStyle.produceDotted(Color.BLACK, 1);
+			final BorderPlanner borders = new BorderPlanner();
+			// 3 x 3 grid, every cell with its own borders
+			for (int row = 0; row < 3; row++) {
+				for (int column = 0; column < 3; column++) {
+					final float x = column * 10;
+					final float y = 100 - row * 10;
+					borders.addHorizontal(solid, y, x, x + 10);
+					borders.addHorizontal(solid, y - 10, x, x + 10);
+					borders.addVertical(solid, x, y, y - 10);
+					borders.addVertical(column == 2 ? dotted : solid, x + 10, y, y - 10);
+				}
+			}
+			borders.stroke(page.getStream());
+
+			final String content = page.finish();
+			// 4 rows, 3 solid columns and 1 dotted column, in 2 paths
+			Assert.assertEquals(8, count(content, " m\n"));
+			Assert.assertEquals(2, count(content, "\nS\n"));
+		}
+	}
+}
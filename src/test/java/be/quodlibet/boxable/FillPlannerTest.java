@@ -0,0 +1,35 @@
+package be.quodlibet.boxable;
+
+import static be.quodlibet.boxable.utils.TestContentStream.count;
+
+import java.awt.Color;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import be.quodlibet.boxable.utils.TestContentStream;
+
+public class FillPlannerTest {
+
+	@Test
+	public void testAdjacentFillsAreMerged() throws Exception {
+		try (TestContentStream page = new TestContentStream()) {
+			final FillPlanner fills = new FillPlanner();
+			// zebra rows of two cells next to a column of a third color
+			for (int row = 0; row < 3; row++) {
+				final Color zebra = row % 2 == 0 ? Color.LIGHT_GRAY : Color.WHITE;
+				final float y = 100 - (row + 1) * 10;
+				fills.add(zebra, 0, y, 10, 10);
+				fills.add(zebra, 10, y, 10, 10);
+				fills.add(Color.YELLOW, 20, y, 10, 10);
+			}
+			fills.fill(page.getStream());
+
+			final String content = page.finish();
+			// 2 gray bands, 1 white band and 1 yellow column, in 3 paths
+			Assert.assertEquals(4, count(content, " re\n"));
+			Assert.assertEquals(3, count(content, "\nf\n"));
+			Assert.assertTrue(content.contains("20 70 10 30 re"));
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package be.quodlibet.boxable;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HeaderFormTest {
+
+	@Test
+	public void testHeaderFormLooksLikeRepeatedHeader() throws IOException {
+		final PDDocument repeated = new PDDocument();
+		createTable(repeated, false).draw();
+		final PDDocument stamped = new PDDocument();
+		final BaseTable table = createTable(stamped, true);
+		table.draw();
+
+		Assert.assertTrue(stamped.getNumberOfPages() > 2);
+		Assert.assertEquals(repeated.getNumberOfPages(), stamped.getNumberOfPages());
+		PDXObject form = null;
+		for (int i = 0; i < stamped.getNumberOfPages(); i++) {
+			final PDPage page = stamped.getPage(i);
+			if (i > 0) {
+				// all pages after the first one refer to the same form
+				final COSName name = page.getResources().getXObjectNames().iterator().next();
+				if (form == null) {
+					form = page.getResources().getXObject(name);
+				}
+				Assert.assertSame(form.getCOSObject(), page.getResources().getXObject(name).getCOSObject());
+			}
+			// twice the size, where seams between the header and the rows show
+			final BufferedImage expected = new PDFRenderer(repeated).renderImage(i, 2);
+			final BufferedImage actual = new PDFRenderer(stamped).renderImage(i, 2);
+			for (int x = 0; x < expected.getWidth(); x++) {
+				for (int y = 0; y < expected.getHeight(); y++) {
+					Assert.assertEquals("page " + i, expected.getRGB(x, y), actual.getRGB(x, y));
+				}
+			}
+		}
+		repeated.close();
+		stamped.close();
+	}
+
+	@Test
+	public void testHeaderFormRenderedInParallel() throws IOException {
+		final PDDocument serial = new PDDocument();
+		createTable(serial, true).draw();
+		final PDDocument parallel = new PDDocument();
+		final BaseTable table = createTable(parallel, true);
+		final ExecutorService renderPool = Executors.newFixedThreadPool(4);
+		table.setRenderPool(renderPool);
+		table.draw();
+		renderPool.shutdown();
+
+		Assert.assertEquals(serial.getNumberOfPages(), parallel.getNumberOfPages());
+		for (int i = 0; i < serial.getNumberOfPages(); i++) {
+			Assert.assertArrayEquals("page " + i, TestTables.contentOf(serial.getPage(i)),
+					TestTables.contentOf(parallel.getPage(i)));
+		}
+		serial.close();
+		parallel.close();
+	}
+
+	private static BaseTable createTable(final PDDocument document, final boolean headerAsForm) throws IOException {
+		final BaseTable table = TestTables.createTable(document);
+		table.setHeaderAsForm(headerAsForm);
+		final Row<PDPage> headerRow = table.createRow(15f);
+		for (String title : new String[] { "Name", "Description" }) {
+			final Cell<PDPage> cell = headerRow.createCell(50, title);
+			cell.setFont(PDType1Font.HELVETICA_BOLD);
+			cell.setFillColor(Color.LIGHT_GRAY);
+		}
+		table.addHeaderRow(headerRow);
+		for (int i = 0; i < 150; i++) {
+			final Row<PDPage> row = table.createRow(10f);
+			row.createCell(50, "Row " + i).setFont(PDType1Font.HELVETICA);
+			row.createCell(50, "text").setFont(PDType1Font.HELVETICA);
+		}
+		return table;
+	}
+}
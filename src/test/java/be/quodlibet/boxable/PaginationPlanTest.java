@@ -0,0 +1,44 @@
+package be.quodlibet.boxable;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PaginationPlanTest {
+
+	@Test
+	public void testDrawFollowsPlan() throws IOException {
+		final PDDocument doc = new PDDocument();
+		final BaseTable table = TestTables.createTable(doc, 200);
+
+		final Row<PDPage> headerRow = table.createRow(15f);
+		headerRow.createCell(100, "Header").setFont(PDType1Font.HELVETICA_BOLD);
+		table.addHeaderRow(headerRow);
+		for (int i = 0; i < 150; i++) {
+			final Row<PDPage> row = table.createRow(10f);
+			row.createCell(30, "Row " + i).setFont(PDType1Font.HELVETICA);
+			final Cell<PDPage> cell = row.createCell(70, i % 7 == 0 ? "some text long enough to need a second line in "
+					+ "this cell, making the row higher than the others" : "text");
+			cell.setFont(PDType1Font.HELVETICA);
+		}
+
+		final PaginationPlan plan = table.getPaginationPlan();
+		Assert.assertTrue(plan.getPageCount() > 2);
+		int rows = 0;
+		for (final PaginationPlan.Page planPage : plan.getPages()) {
+			Assert.assertEquals(rows, planPage.getStartRow());
+			Assert.assertTrue(planPage.getYEnd() > 50);
+			rows = planPage.getEndRow();
+		}
+		Assert.assertEquals(table.getRows().size(), rows);
+
+		final float yEnd = table.draw();
+		Assert.assertEquals(plan.getPageCount(), doc.getNumberOfPages());
+		Assert.assertEquals(plan.getYEnd(), yEnd, 0);
+		doc.close();
+	}
+}
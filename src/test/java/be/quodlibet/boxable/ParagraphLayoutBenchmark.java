@@ -0,0 +1,50 @@
+package be.quodlibet.boxable;
+
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+/**
+ * <p>
+ * Compares the layout of text without markup to the general layout. Not a
+ * unit test, run it with {@code main}, optionally passing the number of
+ * paragraphs and the length of their text.
+ * </p>
+ */
+public class ParagraphLayoutBenchmark {
+
+	private static final String WORDS = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod "
+			+ "tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation "
+			+ "ullamco laboris nisi ut aliquip ex ea commodo consequat. ";
+
+	public static void main(String[] args) {
+		final int paragraphs = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		final int length = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+		final StringBuilder sb = new StringBuilder();
+		while (sb.length() < length) {
+			sb.append(WORDS);
+		}
+		final String text = sb.substring(0, length);
+
+		for (int round = 0; round < 5; round++) {
+			final long general = run(text, paragraphs, false);
+			final long plain = run(text, paragraphs, true);
+			System.out.println(String.format("round %d: general %d ms, plain text %d ms, speedup %.2fx", round,
+					general / 1000000, plain / 1000000, (double) general / plain));
+		}
+	}
+
+	private static long run(final String text, final int paragraphs, final boolean plainTextFastPath) {
+		final long start = System.nanoTime();
+		float height = 0;
+		for (int i = 0; i < paragraphs; i++) {
+			final Paragraph paragraph = new Paragraph(text, PDType1Font.HELVETICA, 8, 120, HorizontalAlignment.LEFT);
+			paragraph.setPlainTextFastPath(plainTextFastPath);
+			height += paragraph.getHeight();
+		}
+		final long time = System.nanoTime() - start;
+		if (height < 0) {
+			System.out.println(height);
+		}
+		return time;
+	}
+}
@@ -0,0 +1,85 @@
+package be.quodlibet.boxable;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Assert;
+import org.junit.Test;
+
+import be.quodlibet.boxable.text.WrappingFunction;
+
+public class ParagraphTest {
+
+	private static final String[] TEXTS = { "", " ", "a", "Lorem ipsum dolor sit amet",
+			"Lorem ipsum dolor sit amet, consectetur adipiscing elit. Sed do eiusmod tempor incididunt ut labore.",
+			"  two  spaces  between   words  ", "several   spaces   in   a   row",
+			"mail@example.com;phone:555-0100,fax:555-0101.", "Pneumonoultramicroscopicsilicovolcanoconiosis",
+			"short Pneumonoultramicroscopicsilicovolcanoconiosis and Supercalifragilisticexpialidocious words",
+			"trailing whitespace   ", "> no markup > here & there" };
+
+	private static final float[] WIDTHS = { 1, 20, 60, 150, 500 };
+
+	private static final WrappingFunction[] WRAPPING_FUNCTIONS = { null, new WrappingFunction() {
+		@Override
+		public String[] getLines(String t) {
+			return t.split(" ");
+		}
+	}, new WrappingFunction() {
+		@Override
+		public String[] getLines(String t) {
+			return new String[] { t };
+		}
+	} };
+
+	@Test
+	public void testPlainTextLayoutEqualsGeneralLayout() throws Exception {
+		final PDFont[] fonts = { PDType1Font.HELVETICA, PDType1Font.TIMES_ROMAN, PDType1Font.COURIER };
+		for (final String text : TEXTS) {
+			for (final float width : WIDTHS) {
+				for (final PDFont font : fonts) {
+					for (final HorizontalAlignment align : HorizontalAlignment.values()) {
+						for (final WrappingFunction wrappingFunction : WRAPPING_FUNCTIONS) {
+							final Paragraph plain = new Paragraph(text, font, 10, width, align, wrappingFunction);
+							final Paragraph general = new Paragraph(text, font, 10, width, align, wrappingFunction);
+							general.setPlainTextFastPath(false);
+							final String message = "'" + text + "' width " + width + " " + font.getName() + " " + align;
+							assertSameMeasure(message, general, plain.measure(width));
+							assertSameLayout(message, general, plain);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testMeasureWithOtherWidth() throws Exception {
+		final String text = "Lorem ipsum <b>dolor</b> sit amet, <i>consectetur</i> adipiscing elit.<ul><li>one</li><li>two</li></ul>";
+		final Paragraph paragraph = new Paragraph(text, PDType1Font.HELVETICA, 10, 500, HorizontalAlignment.LEFT);
+		for (final float width : WIDTHS) {
+			final Paragraph expected = new Paragraph(text, PDType1Font.HELVETICA, 10, width, HorizontalAlignment.LEFT);
+			assertSameMeasure("width " + width, expected, paragraph.measure(width));
+		}
+	}
+
+	private static void assertSameMeasure(final String message, final Paragraph expected,
+			final Paragraph.Measure actual) {
+		Assert.assertEquals(message, expected.getLines().size(), actual.getLineCount());
+		Assert.assertEquals(message, expected.getMaxLineWidth(), actual.getMaxLineWidth(), 0);
+		Assert.assertEquals(message, expected.getHeight(), actual.getHeight(), 0);
+	}
+
+	private static void assertSameLayout(final String message, final Paragraph expected, final Paragraph actual) {
+		Assert.assertEquals(message, expected.getLines(), actual.getLines());
+		Assert.assertEquals(message, expected.getLineCount(), actual.getLineCount());
+		for (int line = 0; line < expected.getLineCount(); line++) {
+			Assert.assertEquals(message, expected.getLineTokenStart(line), actual.getLineTokenStart(line));
+			Assert.assertEquals(message, expected.getLineTokenEnd(line), actual.getLineTokenEnd(line));
+			for (int i = expected.getLineTokenStart(line); i < expected.getLineTokenEnd(line); i++) {
+				Assert.assertEquals(message, expected.getLineToken(i).toString(), actual.getLineToken(i).toString());
+			}
+			Assert.assertEquals(message, expected.getLineWidth(line), actual.getLineWidth(line), 0);
+		}
+		Assert.assertEquals(message, expected.getMaxLineWidth(), actual.getMaxLineWidth(), 0);
+		Assert.assertEquals(message, expected.getHeight(), actual.getHeight(), 0);
+	}
+}
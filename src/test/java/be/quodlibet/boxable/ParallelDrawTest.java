@@ -0,0 +1,82 @@
+package be.quodlibet.boxable;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelDrawTest {
+
+	@Test
+	public void testParallelLayoutEqualsSerialLayout() throws IOException {
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			final List<byte[]> serial = draw(null, 0, null);
+			Assert.assertTrue(serial.size() > 2);
+			assertSameContent(serial, draw(pool, 0, null));
+			assertSameContent(serial, draw(pool, 7, null));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testParallelRenderingEqualsSerialRendering() throws IOException {
+		final ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			assertSameContent(draw(null, 0, null), draw(null, 0, pool));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void assertSameContent(final List<byte[]> expected, final List<byte[]> actual) {
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertArrayEquals("page " + i, expected.get(i), actual.get(i));
+		}
+	}
+
+	private static List<byte[]> draw(final ForkJoinPool pool, final int layoutAheadRows, final ExecutorService renderPool)
+			throws IOException {
+		final PDDocument doc = new PDDocument();
+		final BaseTable table = TestTables.createTable(doc);
+		table.setLayoutPool(pool);
+		table.setLayoutAheadRows(layoutAheadRows);
+		table.setRenderPool(renderPool);
+
+		final Row<PDPage> headerRow = table.createRow(15f);
+		headerRow.createCell(100, "<b>Header</b> row").setFont(PDType1Font.HELVETICA_BOLD);
+		table.addHeaderRow(headerRow);
+		for (int i = 0; i < 200; i++) {
+			final Row<PDPage> row = table.createRow(10f);
+			final Cell<PDPage> rotated = row.createCell(10, "Row " + i);
+			rotated.setFont(PDType1Font.HELVETICA);
+			rotated.setTextRotated(true);
+			if (i % 3 == 0) {
+				rotated.setFillColor(Color.LIGHT_GRAY);
+			}
+			row.createCell(30, "Lorem ipsum dolor sit amet, consectetur adipiscing elit " + i)
+					.setFont(PDType1Font.TIMES_ROMAN);
+			row.createCell(60, "<ul><li>one</li><li>two <i>" + i + "</i></li></ul>").setFont(PDType1Font.HELVETICA);
+		}
+		table.draw();
+
+		final List<byte[]> contents = new ArrayList<>();
+		for (final PDPage p : doc.getPages()) {
+			contents.add(TestTables.contentOf(p));
+			contents.add(p.getResources().getCOSObject().toString().getBytes("UTF-8"));
+		}
+		doc.close();
+		return contents;
+	}
+}
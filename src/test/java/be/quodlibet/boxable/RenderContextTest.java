@@ -0,0 +1,93 @@
+package be.quodlibet.boxable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Assert;
+import org.junit.Test;
+
+import be.quodlibet.boxable.utils.FontUtils;
+import be.quodlibet.boxable.utils.StrongReferences;
+
+public class RenderContextTest {
+
+	@Test
+	public void testDefaultFontsStayInDocument() throws IOException {
+		final PDDocument sans = new PDDocument();
+		final PDDocument standard = new PDDocument();
+		final BaseTable sansTable = TestTables.createTable(sans);
+		sansTable.getRenderContext().setSansFontsAsDefault();
+
+		final PDFont sansFont = sansTable.getRenderContext().getDefaultFonts().get("font");
+		Assert.assertNotNull(sansFont);
+		Assert.assertSame(sansFont, sansTable.createRow(10f).createCell(100, "text").getFont());
+		Assert.assertSame(PDType1Font.HELVETICA,
+				TestTables.createTable(standard).createRow(10f).createCell(100, "text").getFont());
+		sans.close();
+		standard.close();
+	}
+
+	@Test
+	public void testTablesShareContext() throws IOException {
+		final PDDocument document = new PDDocument();
+		final RenderContext context = new RenderContext(document);
+		context.setSansFontsAsDefault();
+		final BaseTable table = TestTables.createTable(document);
+		Assert.assertNotSame(context, table.getRenderContext());
+		table.setRenderContext(context);
+
+		Assert.assertSame(context.getDefaultFonts().get("font"), table.createRow(10f).createCell(100, "text").getFont());
+		document.close();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testContextOfOtherDocument() throws IOException {
+		final PDDocument document = new PDDocument();
+		final PDDocument other = new PDDocument();
+		try {
+			TestTables.createTable(document).setRenderContext(new RenderContext(other));
+		} finally {
+			document.close();
+			other.close();
+		}
+	}
+
+	@Test
+	public void testDrawnDocumentIsNotKept() throws Exception {
+		final PDDocument document = new PDDocument();
+		final BaseTable table = TestTables.createTable(document);
+		table.getRenderContext().setSansFontsAsDefault();
+		table.createRow(10f).createCell(100, "text");
+		table.draw();
+
+		// only the table and its context refer to the document
+		Assert.assertFalse(StrongReferences.reachFromStatics(document, RenderContext.class, Table.class,
+				FontUtils.class));
+		document.close();
+	}
+
+	@Test
+	public void testDrawAndSaveAsync() throws Exception {
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final PDDocument document = new PDDocument();
+		final BaseTable table = TestTables.createTable(document);
+		for (int i = 0; i < 100; i++) {
+			table.createRow(10f).createCell(100, "Row " + i);
+		}
+
+		final PaginationPlan plan = table.getPaginationPlan();
+		final float yEnd = table.drawAsync(executor).get();
+		Assert.assertEquals(plan.getYEnd(), yEnd, 0);
+		Assert.assertEquals(plan.getPageCount(), document.getNumberOfPages());
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		table.getRenderContext().saveAsync(output, executor).get();
+		Assert.assertTrue(output.size() > 0);
+		document.close();
+		executor.shutdown();
+	}
+}
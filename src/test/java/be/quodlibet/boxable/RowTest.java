@@ -0,0 +1,39 @@
+package be.quodlibet.boxable;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RowTest {
+
+	@Test
+	public void testHeightFollowsCellChanges() throws IOException {
+		final PDDocument doc = new PDDocument();
+		final PDPage page = new PDPage();
+		doc.addPage(page);
+		final BaseTable table = new BaseTable(700, 700, 50, 300, 50, doc, page, true, true);
+		final Row<PDPage> row = table.createRow(10f);
+		final Cell<PDPage> cell = row.createCell(50, "short");
+		cell.setFont(PDType1Font.HELVETICA);
+		final float oneLine = row.getHeight();
+		Assert.assertEquals(cell.measureHeight(), oneLine, 0);
+
+		cell.setText("some longer text which needs several lines in a narrow cell");
+		final float severalLines = row.getHeight();
+		Assert.assertTrue(severalLines > oneLine);
+		Assert.assertEquals(cell.measureHeight(), severalLines, 0);
+
+		cell.setTopPadding(20);
+		Assert.assertEquals(severalLines + 15, row.getHeight(), 0.001);
+
+		final Cell<PDPage> other = row.createCell(50, "other");
+		other.setFont(PDType1Font.HELVETICA);
+		other.setHeight(200f);
+		Assert.assertEquals(200, row.getHeight(), 0);
+		doc.close();
+	}
+}
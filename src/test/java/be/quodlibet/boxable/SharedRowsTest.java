@@ -0,0 +1,133 @@
+package be.quodlibet.boxable;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SharedRowsTest {
+
+	@Test
+	public void testSharedRowsDrawnConcurrently() throws Exception {
+		final PDDocument modelDocument = new PDDocument();
+		final BaseTable model = TestTables.createTable(modelDocument);
+		final Row<PDPage> headerRow = model.createRow(15f);
+		final Cell<PDPage> headerCell = headerRow.createCell(100, "Header");
+		headerCell.setFont(PDType1Font.HELVETICA_BOLD);
+		model.addHeaderRow(headerRow);
+		for (int i = 0; i < 150; i++) {
+			final Row<PDPage> row = model.createRow(10f);
+			final Cell<PDPage> cell = row.createCell(30, "Row " + i);
+			cell.setFont(PDType1Font.HELVETICA);
+			cell.setTextRotated(i % 10 == 0);
+			final Cell<PDPage> hidden = row.createCell(70, "hidden unless on top of a page");
+			hidden.setFont(PDType1Font.HELVETICA);
+			hidden.setHiddenCell(true);
+			if (i % 50 == 0) {
+				final PDOutlineItem bookmark = new PDOutlineItem();
+				bookmark.setTitle("Row " + i);
+				row.setBookmark(bookmark);
+			}
+		}
+		model.layout();
+
+		final List<byte[]> expected = drawShared(model);
+		Assert.assertTrue(expected.size() > 2);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final List<Future<List<byte[]>>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(executor.submit(new Callable<List<byte[]>>() {
+				@Override
+				public List<byte[]> call() throws IOException {
+					return drawShared(model);
+				}
+			}));
+		}
+		for (Future<List<byte[]>> result : results) {
+			final List<byte[]> pages = result.get();
+			Assert.assertEquals(expected.size(), pages.size());
+			for (int i = 0; i < pages.size(); i++) {
+				Assert.assertArrayEquals("page " + i, expected.get(i), pages.get(i));
+			}
+		}
+		executor.shutdown();
+
+		// drawing left the model as it was
+		for (Row<PDPage> row : model.getRows()) {
+			if (row.getBookmark() != null) {
+				Assert.assertNull(row.getBookmark().getDestination());
+			}
+			for (Cell<PDPage> cell : row.getCells()) {
+				Assert.assertNotNull(cell.getTopBorder());
+			}
+			if (row != headerRow) {
+				Assert.assertTrue(row.getCells().get(1).isHiddenCell());
+				Assert.assertEquals("hidden unless on top of a page", row.getCells().get(1).getText());
+			}
+		}
+		model.draw();
+		Assert.assertEquals(expected.size(), modelDocument.getNumberOfPages());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertArrayEquals("page " + i, expected.get(i), TestTables.contentOf(modelDocument.getPage(i)));
+		}
+		modelDocument.close();
+	}
+
+	@Test
+	public void testDrawnBookmarkLeavesOutlineOut() throws IOException {
+		final PDDocument document = new PDDocument();
+		final BaseTable table = TestTables.createTable(document);
+		final PDOutlineItem bookmark = new PDOutlineItem();
+		bookmark.setTitle("Row");
+		bookmark.setBold(true);
+		bookmark.setTextColor(Color.RED);
+		// the row's bookmark already belongs to an outline
+		final PDDocumentOutline outline = new PDDocumentOutline();
+		outline.addLast(new PDOutlineItem());
+		outline.addLast(bookmark);
+		final Row<PDPage> row = table.createRow(10f);
+		row.createCell(100, "Row").setFont(PDType1Font.HELVETICA);
+		row.setBookmark(bookmark);
+		table.draw();
+
+		Assert.assertEquals(1, table.getBookmarks().size());
+		final PDOutlineItem drawn = table.getBookmarks().get(0);
+		Assert.assertNotSame(bookmark.getCOSObject(), drawn.getCOSObject());
+		Assert.assertEquals("Row", drawn.getTitle());
+		Assert.assertTrue(drawn.isBold());
+		Assert.assertEquals(bookmark.getCOSObject().getItem(COSName.C), drawn.getCOSObject().getItem(COSName.C));
+		Assert.assertNotNull(drawn.getDestination());
+		for (COSName key : new COSName[] { COSName.PARENT, COSName.PREV, COSName.NEXT, COSName.FIRST, COSName.LAST }) {
+			Assert.assertFalse(key.getName(), drawn.getCOSObject().containsKey(key));
+		}
+		Assert.assertNull(bookmark.getDestination());
+		document.close();
+	}
+
+	private static List<byte[]> drawShared(final Table<PDPage> model) throws IOException {
+		final PDDocument document = new PDDocument();
+		final BaseTable table = TestTables.createTable(document);
+		table.shareRows(model);
+		table.draw();
+		Assert.assertEquals(3, table.getBookmarks().size());
+		final List<byte[]> pages = new ArrayList<>();
+		for (PDPage page : document.getPages()) {
+			pages.add(TestTables.contentOf(page));
+		}
+		document.close();
+		return pages;
+	}
+}
@@ -0,0 +1,135 @@
+package be.quodlibet.boxable;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class TablePipelineTest {
+
+	private static final int ROWS = 200;
+
+	@Test
+	public void testPipelineEqualsDraw() throws Exception {
+		assertPipelineEqualsDraw(1f);
+	}
+
+	@Test
+	public void testPipelineKeepsLineSpacing() throws Exception {
+		assertPipelineEqualsDraw(1.5f);
+	}
+
+	@Test
+	public void testStreamedRowsEqualDraw() throws IOException {
+		final PDDocument drawn = new PDDocument();
+		final BaseTable table = createTable(drawn);
+		for (int i = 0; i < ROWS; i++) {
+			fillRow(table.createRow(10f), i);
+		}
+		final float yEnd = table.draw();
+
+		final PDDocument streamed = new PDDocument();
+		final BaseTable streamedTable = createTable(streamed);
+		for (int i = 0; i < ROWS; i++) {
+			final Row<PDPage> row = streamedTable.createStreamedRow(10f);
+			fillRow(row, i);
+			streamedTable.drawStreamedRow(row);
+		}
+		Assert.assertEquals(yEnd, streamedTable.endStreamedRows(), 0);
+		// only the header row is kept
+		Assert.assertEquals(1, streamedTable.getRows().size());
+
+		Assert.assertEquals(drawn.getNumberOfPages(), streamed.getNumberOfPages());
+		for (int i = 0; i < drawn.getNumberOfPages(); i++) {
+			Assert.assertArrayEquals("page " + i, TestTables.contentOf(drawn.getPage(i)),
+					TestTables.contentOf(streamed.getPage(i)));
+		}
+		drawn.close();
+		streamed.close();
+	}
+
+	@Test(timeout = 10000)
+	public void testInterruptedPipelineReleasesSource() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		final PDDocument piped = new PDDocument();
+		final TablePipeline<PDPage> pipeline = new TablePipeline<>(createTable(piped), 1);
+		final ListenableFuture<Float> result = pipeline.start(executor);
+		final Row<PDPage> first = pipeline.createRow(10f);
+		fillRow(first, 0);
+		pipeline.put(first);
+		executor.shutdownNow();
+		// neither putting more rows nor closing waits for the stopped stages
+		for (int i = 1; i < ROWS; i++) {
+			final Row<PDPage> row = pipeline.createRow(10f);
+			fillRow(row, i);
+			pipeline.put(row);
+		}
+		pipeline.close();
+		try {
+			result.get();
+			Assert.fail("Interrupted pipeline finished the table");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof InterruptedException);
+		}
+		Assert.assertFalse(pipeline.put(pipeline.createRow(10f)));
+		piped.close();
+	}
+
+	private static void assertPipelineEqualsDraw(final float lineSpacing) throws Exception {
+		final PDDocument drawn = new PDDocument();
+		final BaseTable table = createTable(drawn, lineSpacing);
+		for (int i = 0; i < ROWS; i++) {
+			fillRow(table.createRow(10f), i);
+		}
+		final float yEnd = table.draw();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		final PDDocument piped = new PDDocument();
+		final TablePipeline<PDPage> pipeline = new TablePipeline<>(createTable(piped, lineSpacing), 8);
+		final ListenableFuture<Float> result = pipeline.start(executor);
+		for (int i = 0; i < ROWS; i++) {
+			final Row<PDPage> row = pipeline.createRow(10f);
+			fillRow(row, i);
+			Assert.assertTrue(pipeline.put(row));
+		}
+		pipeline.close();
+		Assert.assertEquals(yEnd, result.get(), 0);
+		executor.shutdown();
+
+		Assert.assertEquals(drawn.getNumberOfPages(), piped.getNumberOfPages());
+		for (int i = 0; i < drawn.getNumberOfPages(); i++) {
+			Assert.assertArrayEquals("page " + i, TestTables.contentOf(drawn.getPage(i)),
+					TestTables.contentOf(piped.getPage(i)));
+		}
+		drawn.close();
+		piped.close();
+	}
+
+	private static BaseTable createTable(final PDDocument document) throws IOException {
+		return createTable(document, 1f);
+	}
+
+	private static BaseTable createTable(final PDDocument document, final float lineSpacing) throws IOException {
+		final BaseTable table = TestTables.createTable(document, 100);
+		table.setLineSpacing(lineSpacing);
+		final Row<PDPage> headerRow = table.createRow(15f);
+		headerRow.createCell(100, "Header").setFont(PDType1Font.HELVETICA_BOLD);
+		table.addHeaderRow(headerRow);
+		return table;
+	}
+
+	private static void fillRow(final Row<PDPage> row, final int i) {
+		row.createCell(30, "Row " + i).setFont(PDType1Font.HELVETICA);
+		final Cell<PDPage> cell = row.createCell(70, i % 7 == 0 ? "some text long enough to need a second line in "
+				+ "this cell, making the row higher than the others" : "text");
+		cell.setFont(PDType1Font.HELVETICA);
+	}
+}
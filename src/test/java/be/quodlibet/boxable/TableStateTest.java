@@ -0,0 +1,127 @@
+package be.quodlibet.boxable;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableStateTest {
+
+	private static final int ROWS = 200;
+
+	@Test
+	public void testShardsEqualWholeTable() throws IOException {
+		final PDDocument whole = new PDDocument();
+		final BaseTable table = createTable(whole, null, 0, ROWS);
+		final PaginationPlan plan = table.getPaginationPlan();
+		table.draw();
+
+		final List<PaginationPlan.Page> pages = plan.getPages();
+		Assert.assertTrue(pages.size() > 4);
+		final PDDocument merged = new PDDocument();
+		final List<PDDocument> shards = new ArrayList<>();
+		// two pages per shard
+		for (int i = 0; i < pages.size(); i += 2) {
+			final PDDocument shard = new PDDocument();
+			// the row indices include the header row
+			final int startRow = Math.max(pages.get(i).getStartRow() - 1, 0);
+			final int endRow = pages.get(Math.min(i + 1, pages.size() - 1)).getEndRow() - 1;
+			final BaseTable shardTable = createTable(shard, pages.get(i).getStartState(), startRow, endRow);
+			shardTable.draw();
+			final PDDocumentOutline outline = new PDDocumentOutline();
+			if (shardTable.getBookmarks() != null) {
+				for (final PDOutlineItem bookmark : shardTable.getBookmarks()) {
+					outline.addLast(bookmark);
+				}
+			}
+			shard.getDocumentCatalog().setDocumentOutline(outline);
+			new PDFMergerUtility().appendDocument(merged, shard);
+			shards.add(shard);
+		}
+
+		Assert.assertEquals(whole.getNumberOfPages(), merged.getNumberOfPages());
+		for (int i = 0; i < whole.getNumberOfPages(); i++) {
+			Assert.assertArrayEquals("page " + i, TestTables.contentOf(whole.getPage(i)),
+					TestTables.contentOf(merged.getPage(i)));
+		}
+		int bookmarks = 0;
+		for (final PDOutlineItem bookmark : merged.getDocumentCatalog().getDocumentOutline().children()) {
+			Assert.assertNotNull(bookmark.findDestinationPage(merged));
+			bookmarks++;
+		}
+		Assert.assertEquals(table.getBookmarks().size(), bookmarks);
+
+		for (final PDDocument shard : shards) {
+			shard.close();
+		}
+		merged.close();
+		whole.close();
+	}
+
+	@Test
+	public void testContinueOnSamePage() throws IOException {
+		final PDDocument whole = new PDDocument();
+		createTable(whole, null, 0, 20).draw();
+
+		final PDDocument continued = new PDDocument();
+		final BaseTable first = createTable(continued, null, 0, 10);
+		first.draw();
+		final BaseTable second = createTable(continued, first.getEndState(), 10, 20);
+		second.draw();
+
+		Assert.assertEquals(1, continued.getNumberOfPages());
+		// the second table appends its own content stream, so compare the
+		// rendered pages
+		final BufferedImage expected = new PDFRenderer(whole).renderImage(0);
+		final BufferedImage actual = new PDFRenderer(continued).renderImage(0);
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				Assert.assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+			}
+		}
+		whole.close();
+		continued.close();
+	}
+
+	private static BaseTable createTable(final PDDocument document, final TableState startState, final int startRow,
+			final int endRow) throws IOException {
+		final PDPage page;
+		if (document.getNumberOfPages() == 0) {
+			page = new PDPage();
+			document.addPage(page);
+		} else {
+			page = document.getPage(document.getNumberOfPages() - 1);
+		}
+		final BaseTable table = TestTables.createTable(document, page, 0);
+		if (startState != null) {
+			table.setStartState(startState);
+		}
+
+		final Row<PDPage> headerRow = table.createRow(15f);
+		headerRow.createCell(100, "Header").setFont(PDType1Font.HELVETICA_BOLD);
+		table.addHeaderRow(headerRow);
+		for (int i = startRow; i < endRow; i++) {
+			final Row<PDPage> row = table.createRow(10f);
+			row.createCell(30, "Row " + i).setFont(PDType1Font.HELVETICA);
+			final Cell<PDPage> cell = row.createCell(70, i % 7 == 0 ? "some text long enough to need a second line in "
+					+ "this cell, making the row higher than the others" : "text");
+			cell.setFont(PDType1Font.HELVETICA);
+			if (i % 25 == 0) {
+				final PDOutlineItem bookmark = new PDOutlineItem();
+				bookmark.setTitle("Row " + i);
+				row.setBookmark(bookmark);
+			}
+		}
+		return table;
+	}
+}
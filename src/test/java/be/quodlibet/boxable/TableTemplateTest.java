@@ -0,0 +1,85 @@
+package be.quodlibet.boxable;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableTemplateTest {
+
+	private static final int ROWS = 120;
+
+	@Test
+	public void testFilledTemplateEqualsBuiltTable() throws IOException {
+		final PDDocument modelDocument = new PDDocument();
+		final BaseTable model = TestTables.createTable(modelDocument);
+		addFixedRows(model);
+		final Row<PDPage> recordRow = model.createStreamedRow(12f);
+		addCells(recordRow, "", "", "EUR");
+		final TableTemplate<PDPage> template = new TableTemplate<>(model, recordRow);
+
+		// two statements filled from the same template
+		for (int statement = 0; statement < 2; statement++) {
+			final PDDocument filled = new PDDocument();
+			final BaseTable filledTable = TestTables.createTable(filled);
+			template.apply(filledTable);
+			for (int i = 0; i < ROWS; i++) {
+				final Row<PDPage> row = template.addRow(filledTable, Arrays.asList(name(statement, i), "" + i, null));
+				// the fixed text is laid out once
+				Assert.assertSame(recordRow.getCells().get(2).getParagraph(), row.getCells().get(2).getParagraph());
+			}
+			filledTable.draw();
+
+			final PDDocument built = new PDDocument();
+			final BaseTable builtTable = TestTables.createTable(built);
+			addFixedRows(builtTable);
+			for (int i = 0; i < ROWS; i++) {
+				addCells(builtTable.createRow(12f), name(statement, i), "" + i, "EUR");
+			}
+			builtTable.draw();
+
+			Assert.assertTrue(built.getNumberOfPages() > 1);
+			Assert.assertEquals(built.getNumberOfPages(), filled.getNumberOfPages());
+			for (int i = 0; i < built.getNumberOfPages(); i++) {
+				Assert.assertArrayEquals("page " + i, TestTables.contentOf(built.getPage(i)),
+						TestTables.contentOf(filled.getPage(i)));
+			}
+			filled.close();
+			built.close();
+		}
+		modelDocument.close();
+	}
+
+	private static String name(final int statement, final int row) {
+		return "Statement " + statement + (row % 9 == 0 ? " with a description long enough to wrap" : "");
+	}
+
+	private static void addFixedRows(final Table<PDPage> table) {
+		final Row<PDPage> header = table.createRow(15f);
+		addCells(header, "Description", "Amount", "Currency");
+		for (Cell<PDPage> cell : header.getCells()) {
+			cell.setFont(PDType1Font.HELVETICA_BOLD);
+			cell.setFillColor(Color.LIGHT_GRAY);
+		}
+		table.addHeaderRow(header);
+		final Row<PDPage> legend = table.createRow(10f);
+		addCells(legend, "Amounts include taxes", "", "");
+	}
+
+	private static void addCells(final Row<PDPage> row, final String... values) {
+		final float[] widths = { 60, 25, 15 };
+		for (int i = 0; i < values.length; i++) {
+			final Cell<PDPage> cell = row.createCell(widths[i], values[i]);
+			cell.setFont(PDType1Font.HELVETICA);
+			cell.setFontSize(7);
+			if (i > 0) {
+				cell.setAlign(HorizontalAlignment.RIGHT);
+			}
+		}
+	}
+}
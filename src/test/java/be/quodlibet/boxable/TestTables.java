@@ -0,0 +1,60 @@
+package be.quodlibet.boxable;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * <p>
+ * Tables of the tests which draw the same rows in different ways and compare
+ * the pages: each table is 400 wide with margins of 50 and starts
+ * {@link #TOP_MARGIN} below the top of the page.
+ * </p>
+ */
+final class TestTables {
+
+	static final float TOP_MARGIN = 50;
+
+	private TestTables() {
+	}
+
+	/**
+	 * Creates an empty table on a new page of the document.
+	 */
+	static BaseTable createTable(final PDDocument document) throws IOException {
+		return createTable(document, 0);
+	}
+
+	/**
+	 * Creates an empty table on a new page of the document, starting
+	 * {@code offset} lower on that page than on the following ones.
+	 */
+	static BaseTable createTable(final PDDocument document, final float offset) throws IOException {
+		final PDPage page = new PDPage();
+		document.addPage(page);
+		return createTable(document, page, offset);
+	}
+
+	/**
+	 * Creates an empty table on the given page of the document, starting
+	 * {@code offset} lower on that page than on the following ones.
+	 */
+	static BaseTable createTable(final PDDocument document, final PDPage page, final float offset)
+			throws IOException {
+		final float top = page.getMediaBox().getHeight() - TOP_MARGIN;
+		return new BaseTable(top - offset, top, 50, 400, 50, document, page, true, true);
+	}
+
+	/**
+	 * Reads the content streams of the page.
+	 */
+	static byte[] contentOf(final PDPage page) throws IOException {
+		try (InputStream in = page.getContents()) {
+			return ByteStreams.toByteArray(in);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package be.quodlibet.boxable.text;
+
+import java.io.IOException;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PipelineLayerTest {
+
+	@Test
+	public void testSupplementaryCharacterMeasuredAsOneGlyph() throws IOException {
+		final PDFont font = new CodePointFont();
+		final String text = "a\uD83D\uDE00b c";
+		final PipelineLayer inner = new PipelineLayer();
+		inner.push(font, 10, Token.text(text, 0, 5));
+		// the text of the first token joins the font run of the layer
+		inner.push(font, 10, Token.text(text, 5, 6));
+		final PipelineLayer layer = new PipelineLayer();
+		layer.push(inner);
+		Assert.assertEquals(text, layer.trimmedText());
+		Assert.assertEquals(font.getStringWidth(text) / 1000f * 10, layer.width(), 0.0f);
+		Assert.assertEquals(30, layer.width(), 0.0f);
+	}
+
+	/**
+	 * Font which gives every code point a width of 600 and, like the fonts of
+	 * PDFBox, can't measure a lone surrogate.
+	 */
+	private static final class CodePointFont extends PDType1Font {
+
+		private CodePointFont() throws IOException {
+			super(createDictionary());
+		}
+
+		private static COSDictionary createDictionary() {
+			final COSDictionary dictionary = new COSDictionary();
+			dictionary.setItem(COSName.TYPE, COSName.FONT);
+			dictionary.setItem(COSName.SUBTYPE, COSName.TYPE1);
+			dictionary.setName(COSName.BASE_FONT, "Helvetica");
+			return dictionary;
+		}
+
+		@Override
+		public float getStringWidth(final String text) throws IOException {
+			for (int i = 0; i < text.length(); i++) {
+				final char c = text.charAt(i);
+				if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+					i++;
+				} else if (Character.isSurrogate(c)) {
+					throw new IllegalArgumentException("No glyph for lone surrogate in " + getName());
+				}
+			}
+			return text.codePointCount(0, text.length()) * 600;
+		}
+	}
+}
@@ -136,6 +136,21 @@ public class TokenizerTest {
 		}
 	}
 	
+	@Test
+	public void testDefaultWrappingFunction() throws Exception {
+		final DefaultWrappingFunction defaultWrappingFunction = new DefaultWrappingFunction();
+		final String[] texts = { "", " ", "1 123 123456 12", "mail@example.com, or: call; 555-0100.",
+				"  leading and trailing  ", "tab\tnew line\nform feed\fend", "1 <i>123</i> <i> <b>123456</i></b> 12",
+				"line<br />break" };
+		for (final String text : texts) {
+			Assert.assertArrayEquals("Lines differ for '" + text + "'", wrappingFunction.getLines(text),
+					defaultWrappingFunction.getLines(text));
+			Assert.assertEquals("Tokens differ for '" + text + "'",
+					Tokenizer.tokenize(text, wrappingFunction).toString(),
+					Tokenizer.tokenize(text, defaultWrappingFunction).toString());
+		}
+	}
+
 	@Test
 	public void testEmptyString() throws Exception {
 		// ""
@@ -0,0 +1,42 @@
+package be.quodlibet.boxable.utils;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.cache.CacheStats;
+
+public class FontUtilsTest {
+
+	@Test
+	public void testFontMetricsAreCachedPerFont() throws Exception {
+		final PDDocument document = new PDDocument();
+		final PDFont first = FontUtils.loadFont(document, "fonts/FreeSans.ttf");
+		final PDFont second = FontUtils.loadFont(document, "fonts/FreeSans.ttf");
+		Assert.assertEquals(first.getName(), second.getName());
+
+		final CacheStats before = FontUtils.getFontMetricsStats();
+		final float height = FontUtils.getHeight(first, 10);
+		Assert.assertEquals(height, FontUtils.getHeight(first, 10), 0);
+		Assert.assertEquals(height, FontUtils.getHeight(second, 10), 0);
+		final CacheStats stats = FontUtils.getFontMetricsStats().minus(before);
+		// fonts with the same name are cached separately
+		Assert.assertEquals(2, stats.missCount());
+		Assert.assertEquals(1, stats.hitCount());
+		document.close();
+	}
+
+	@Test
+	public void testMeasuredFontIsOnlyKeptWeakly() throws Exception {
+		final PDDocument document = new PDDocument();
+		final PDFont font = FontUtils.loadFont(document, "fonts/FreeSans.ttf");
+		Assert.assertTrue(FontUtils.getStringWidth(font, "measured", 10) > 0);
+		Assert.assertTrue(FontUtils.getHeight(font, 10) > 0);
+
+		// neither the cached widths nor the metrics keep the font alive
+		Assert.assertFalse(StrongReferences.reach(FontUtils.getGlyphWidths(font), font));
+		Assert.assertFalse(StrongReferences.reachFromStatics(font, FontUtils.class));
+		document.close();
+	}
+}
@@ -0,0 +1,124 @@
+package be.quodlibet.boxable.utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.cache.Cache;
+
+/**
+ * <p>
+ * Follows the strong references of the tests which check that nothing keeps
+ * a font or a document alive, without waiting for the garbage collector.
+ * </p>
+ * <p>
+ * The fields of all objects are followed, except those declared by classes
+ * of the JDK. The contents of maps and collections are followed through
+ * their interface, the referents of {@link java.lang.ref.Reference}s are
+ * not. Of a {@link Cache}, which keys its entries weakly in this library,
+ * only the values are followed.
+ * </p>
+ */
+public final class StrongReferences {
+
+	private StrongReferences() {
+	}
+
+	/**
+	 * Tells whether the target can be reached from the root.
+	 */
+	public static boolean reach(final Object root, final Object target) {
+		return reach(Collections.singletonList(root), target);
+	}
+
+	/**
+	 * Tells whether the target can be reached from the static fields of the
+	 * classes.
+	 */
+	public static boolean reachFromStatics(final Object target, final Class<?>... types) throws Exception {
+		final List<Object> roots = new ArrayList<>();
+		for (final Class<?> type : types) {
+			for (final Field field : type.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+					field.setAccessible(true);
+					roots.add(field.get(null));
+				}
+			}
+		}
+		return reach(roots, target);
+	}
+
+	private static boolean reach(final Collection<?> roots, final Object target) {
+		final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		final Deque<Object> pending = new ArrayDeque<>();
+		for (final Object root : roots) {
+			if (root != null) {
+				pending.push(root);
+			}
+		}
+		while (!pending.isEmpty()) {
+			final Object object = pending.pop();
+			if (object == target) {
+				return true;
+			}
+			if (!visited.add(object)) {
+				continue;
+			}
+			final List<Object> referenced = new ArrayList<>();
+			if (object instanceof Object[]) {
+				Collections.addAll(referenced, (Object[]) object);
+			} else if (object instanceof Cache) {
+				// the entries are held by the fields of the cache
+				referenced.addAll(((Cache<?, ?>) object).asMap().values());
+				pushAll(pending, referenced);
+				continue;
+			} else if (object instanceof Map) {
+				synchronized (object) {
+					referenced.addAll(((Map<?, ?>) object).keySet());
+					referenced.addAll(((Map<?, ?>) object).values());
+				}
+			} else if (object instanceof Collection) {
+				synchronized (object) {
+					referenced.addAll((Collection<?>) object);
+				}
+			}
+			try {
+				addFields(object, referenced);
+			} catch (final IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+			pushAll(pending, referenced);
+		}
+		return false;
+	}
+
+	private static void pushAll(final Deque<Object> pending, final List<Object> referenced) {
+		for (final Object next : referenced) {
+			if (next != null) {
+				pending.push(next);
+			}
+		}
+	}
+
+	private static void addFields(final Object object, final List<Object> referenced) throws IllegalAccessException {
+		for (Class<?> type = object.getClass(); type != null; type = type.getSuperclass()) {
+			if (type.getName().startsWith("java.")) {
+				continue;
+			}
+			for (final Field field : type.getDeclaredFields()) {
+				if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+					field.setAccessible(true);
+					referenced.add(field.get(object));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package be.quodlibet.boxable.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * <p>
+ * Content stream of the tests which count the operators written for a
+ * drawing: a {@link TrackingContentStream} on the single page of a new
+ * document.
+ * </p>
+ */
+public final class TestContentStream implements Closeable {
+
+	private final PDDocument document = new PDDocument();
+
+	private final PDPage page = new PDPage();
+
+	private final TrackingContentStream stream;
+
+	public TestContentStream() throws IOException {
+		document.addPage(page);
+		stream = new TrackingContentStream(new PDPageContentStream(document, page, AppendMode.OVERWRITE, false));
+	}
+
+	public TrackingContentStream getStream() {
+		return stream;
+	}
+
+	/**
+	 * Closes the stream and reads the operators written to the page.
+	 */
+	public String finish() throws IOException {
+		stream.close();
+		try (InputStream in = page.getContents()) {
+			return new String(ByteStreams.toByteArray(in), "US-ASCII");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		document.close();
+	}
+
+	/**
+	 * Counts how often the operator occurs in the content.
+	 */
+	public static int count(final String content, final String operator) {
+		int count = 0;
+		for (int i = content.indexOf(operator); i >= 0; i = content.indexOf(operator, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,37 @@
+package be.quodlibet.boxable.utils;
+
+import static be.quodlibet.boxable.utils.TestContentStream.count;
+
+import java.awt.Color;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import be.quodlibet.boxable.line.LineStyle;
+
+public class TrackingContentStreamTest {
+
+	@Test
+	public void testRedundantStateIsLeftOut() throws Exception {
+		try (TestContentStream page = new TestContentStream()) {
+			final TrackingContentStream stream = page.getStream();
+			final LineStyle border = new LineStyle(Color.BLACK, 1);
+			for (int i = 0; i < 10; i++) {
+				PDStreamUtils.rect(stream, 0, i * 10, 10, 10, Color.RED);
+				PDStreamUtils.setLineStyles(stream, border);
+				stream.moveTo(0, i * 10);
+				stream.lineTo(10, i * 10);
+				stream.stroke();
+			}
+
+			final String content = page.finish();
+			// red for each fill, black for each border and the line style once
+			Assert.assertEquals(10, count(content, "1 0 0 sc"));
+			Assert.assertEquals(10, count(content, "0 0 0 sc"));
+			Assert.assertEquals(1, count(content, " SC"));
+			Assert.assertEquals(1, count(content, " w"));
+			Assert.assertEquals(1, count(content, " J"));
+			Assert.assertEquals(1, count(content, " d"));
+		}
+	}
+}